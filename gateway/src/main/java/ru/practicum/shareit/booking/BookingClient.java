@@ -1,16 +1,17 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingBatchUpdateDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerTransport;
+import ru.practicum.shareit.coalescing.RequestCoalescer;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -18,43 +19,51 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(ServerTransport transport, RequestCoalescer coalescer) {
+        super(transport, coalescer, API_PREFIX);
     }
 
-    public ResponseEntity<Object> get(Long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> get(Long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getAllByUserId(Long userId, BookingState state, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getAllByUserId(Long userId, BookingState state, Integer from, Integer size, String cursor) {
+        return get(pageQuery(cursor), userId, pageParameters(state, from, size, cursor));
+    }
+
+    public Mono<ResponseEntity<Object>> getAllByItemOwner(Long userId, BookingState state, Integer from, Integer size, String cursor) {
+        return get("/owner" + pageQuery(cursor), userId, pageParameters(state, from, size, cursor));
+    }
+
+    public Mono<ResponseEntity<Object>> getArchiveByUserId(Long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
-                "state", state.name(),
                 "from", from,
                 "size", size
         );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        return get("/archive?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getAllByItemOwner(Long userId, BookingState state, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getArchiveByItemOwner(Long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
-                "state", state.name(),
                 "from", from,
                 "size", size
         );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        return get("/owner/archive?from={from}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getSummaryByUserId(Long userId) {
+        return get("/summary", userId);
     }
 
+    public Mono<ResponseEntity<Object>> getSummaryByItemOwner(Long userId) {
+        return get("/owner/summary", userId);
+    }
 
-    public ResponseEntity<Object> add(Long userId, BookItemRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> add(Long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> update(Long userId, Long bookingId, Boolean approved) {
+    public Mono<ResponseEntity<Object>> update(Long userId, Long bookingId, Boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "bookingId", bookingId,
                 "approved", approved
@@ -62,4 +71,23 @@ public class BookingClient extends BaseClient {
         return patch("/{bookingId}?approved={approved}", userId, parameters,null);
     }
 
+    public Mono<ResponseEntity<Object>> updateAll(Long userId, BookingBatchUpdateDto batchDto) {
+        return patch("/batch", userId, batchDto);
+    }
+
+    private String pageQuery(String cursor) {
+        return "?state={state}&from={from}&size={size}" + (cursor != null ? "&cursor={cursor}" : "");
+    }
+
+    private Map<String, Object> pageParameters(BookingState state, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+        }
+        return parameters;
+    }
+
 }
@@ -7,7 +7,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingBatchUpdateDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
 import javax.validation.Valid;
@@ -23,43 +25,80 @@ public class BookingController {
 	private final BookingClient bookingClient;
 
 	@GetMapping("/{bookingId}")
-	public ResponseEntity<Object> get(@RequestHeader("X-Sharer-User-Id") Long userId,
+	public Mono<ResponseEntity<Object>> get(@RequestHeader("X-Sharer-User-Id") Long userId,
 											 @PathVariable Long bookingId) {
 		log.info("Get booking {}, userId={}", bookingId, userId);
 		return bookingClient.get(userId, bookingId);
 	}
 
 	@GetMapping
-	public ResponseEntity<Object> getAllByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
+	public Mono<ResponseEntity<Object>> getAllByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
 			@RequestParam(name = "state", defaultValue = "all") String stateParam,
 			@PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-			@Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+			@Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+			@RequestParam(name = "cursor", required = false) String cursor) {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-		log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-		return bookingClient.getAllByUserId(userId, state, from, size);
+		log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size, cursor);
+		return bookingClient.getAllByUserId(userId, state, from, size, cursor);
 	}
 
 	@GetMapping("/owner")
-	public ResponseEntity<Object> getAllByItemOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+	public Mono<ResponseEntity<Object>> getAllByItemOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
 												 @RequestParam(name = "state", defaultValue = "all") String stateParam,
 												 @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-												 @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+												 @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+												 @RequestParam(name = "cursor", required = false) String cursor) {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-		log.info("Get booking by item owner with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-		return bookingClient.getAllByItemOwner(userId, state, from, size);
+		log.info("Get booking by item owner with state {}, userId={}, from={}, size={}, cursor={}", stateParam, userId, from, size, cursor);
+		return bookingClient.getAllByItemOwner(userId, state, from, size, cursor);
+	}
+
+	@GetMapping("/archive")
+	public Mono<ResponseEntity<Object>> getArchiveByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
+			@PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+			@Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+		log.info("Get archived bookings, userId={}, from={}, size={}", userId, from, size);
+		return bookingClient.getArchiveByUserId(userId, from, size);
+	}
+
+	@GetMapping("/owner/archive")
+	public Mono<ResponseEntity<Object>> getArchiveByItemOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+			@PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+			@Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+		log.info("Get archived bookings by item owner, userId={}, from={}, size={}", userId, from, size);
+		return bookingClient.getArchiveByItemOwner(userId, from, size);
+	}
+
+	@GetMapping("/summary")
+	public Mono<ResponseEntity<Object>> getSummaryByUserId(@RequestHeader("X-Sharer-User-Id") Long userId) {
+		log.info("Get booking summary, userId={}", userId);
+		return bookingClient.getSummaryByUserId(userId);
+	}
+
+	@GetMapping("/owner/summary")
+	public Mono<ResponseEntity<Object>> getSummaryByItemOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
+		log.info("Get booking summary by item owner, userId={}", userId);
+		return bookingClient.getSummaryByItemOwner(userId);
 	}
 
 	@PostMapping
-	public ResponseEntity<Object> add(@RequestHeader("X-Sharer-User-Id") Long userId,
+	public Mono<ResponseEntity<Object>> add(@RequestHeader("X-Sharer-User-Id") Long userId,
 			@RequestBody @Valid BookItemRequestDto requestDto) {
 		log.info("Creating booking {}, userId={}", requestDto, userId);
 		return bookingClient.add(userId, requestDto);
 	}
 
+	@PatchMapping("/batch")
+	public Mono<ResponseEntity<Object>> updateAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+												  @RequestBody @Valid BookingBatchUpdateDto batchDto) {
+		log.info("Update booking status approved = {}, userId={}, bookingIds={}", batchDto.getApproved(), userId, batchDto.getBookingIds());
+		return bookingClient.updateAll(userId, batchDto);
+	}
+
 	@PatchMapping("/{bookingId}")
-	public  ResponseEntity<Object> update(@RequestHeader("X-Sharer-User-Id") Long userId,
+	public  Mono<ResponseEntity<Object>> update(@RequestHeader("X-Sharer-User-Id") Long userId,
 										  @PathVariable Long bookingId, @RequestParam Boolean approved) {
 		log.info("Update booking status approved = {}, userId={}, bookingId={}",approved, userId, bookingId);
 		return bookingClient.update(userId,bookingId, approved);
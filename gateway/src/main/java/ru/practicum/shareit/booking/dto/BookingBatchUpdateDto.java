@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.util.List;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+
+import lombok.*;
+
+@Data
+@Builder
+public class BookingBatchUpdateDto {
+	@NotEmpty
+	@Size(max = 500)
+	private List<@NotNull @Positive Long> bookingIds;
+	@NotNull
+	private Boolean approved;
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.netty.channel.ChannelOption;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties(ServerHttpProperties.class)
+public class ServerHttpClientConfig {
+
+    @Configuration
+    @ConditionalOnProperty(name = "shareit-server.transport", havingValue = "rest-template", matchIfMissing = true)
+    static class RestTemplateTransportConfig {
+
+        @Bean
+        public PoolingHttpClientConnectionManager serverConnectionManager(ServerHttpProperties properties) {
+            PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                    properties.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS);
+            connectionManager.setMaxTotal(properties.getMaxTotal());
+            connectionManager.setDefaultMaxPerRoute(properties.getMaxPerRoute());
+            connectionManager.setValidateAfterInactivity((int) properties.getValidateAfterInactivity().toMillis());
+            return connectionManager;
+        }
+
+        @Bean
+        public CloseableHttpClient serverHttpClient(PoolingHttpClientConnectionManager serverConnectionManager,
+                                                    ServerHttpProperties properties) {
+            long keepAlive = properties.getKeepAlive().toMillis();
+            return HttpClients.custom()
+                    .setConnectionManager(serverConnectionManager)
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                            .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                            .setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis())
+                            .setSocketTimeout((int) properties.getReadTimeout().toMillis())
+                            .build())
+                    .setKeepAliveStrategy((response, context) -> {
+                        long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                        return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAlive) : keepAlive;
+                    })
+                    .evictExpiredConnections()
+                    .evictIdleConnections(properties.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .build();
+        }
+
+        @Bean
+        public ClientHttpRequestFactory serverRequestFactory(CloseableHttpClient serverHttpClient) {
+            return new HttpComponentsClientHttpRequestFactory(serverHttpClient);
+        }
+
+        @Bean
+        public MeterBinder serverConnectionPoolMetrics(PoolingHttpClientConnectionManager serverConnectionManager) {
+            return new PoolingHttpClientConnectionManagerMetricsBinder(serverConnectionManager, "shareit-server");
+        }
+
+        @Bean
+        public ServerTransport serverTransport(@Value("${shareit-server.url}") String serverUrl,
+                                               RestTemplateBuilder builder,
+                                               ClientHttpRequestFactory serverRequestFactory) {
+            return new RestTemplateServerTransport(builder
+                    .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
+                    .requestFactory(() -> serverRequestFactory)
+                    .build());
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "shareit-server.transport", havingValue = "web-client")
+    static class WebClientTransportConfig {
+
+        @Bean(destroyMethod = "dispose")
+        public ConnectionProvider serverConnectionProvider(ServerHttpProperties properties) {
+            return ConnectionProvider.builder("shareit-server")
+                    .maxConnections(properties.getMaxPerRoute())
+                    .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                    .maxIdleTime(properties.getIdleTimeout())
+                    .evictInBackground(properties.getIdleTimeout())
+                    .metrics(true)
+                    .build();
+        }
+
+        @Bean(destroyMethod = "dispose")
+        public LoopResources serverLoopResources(ServerHttpProperties properties) {
+            return LoopResources.create("shareit-server", properties.getEventLoopThreads(), true);
+        }
+
+        @Bean
+        public ServerTransport serverTransport(@Value("${shareit-server.url}") String serverUrl,
+                                               WebClient.Builder builder,
+                                               ConnectionProvider serverConnectionProvider,
+                                               LoopResources serverLoopResources,
+                                               ServerHttpProperties properties) {
+            HttpClient httpClient = HttpClient.create(serverConnectionProvider)
+                    .runOn(serverLoopResources)
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                    .responseTimeout(properties.getReadTimeout());
+            return new WebClientServerTransport(builder
+                    .baseUrl(serverUrl)
+                    .clientConnector(new ReactorClientHttpConnector(httpClient))
+                    .build());
+        }
+    }
+}
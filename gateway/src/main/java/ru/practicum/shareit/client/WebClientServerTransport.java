@@ -0,0 +1,50 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+public class WebClientServerTransport implements ServerTransport {
+    private final WebClient webClient;
+
+    public WebClientServerTransport(WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpHeaders requestHeaders,
+                                                 @Nullable Map<String, Object> parameters, @Nullable Object body) {
+        WebClient.RequestBodySpec request = parameters != null
+                ? webClient.method(method).uri(path, parameters)
+                : webClient.method(method).uri(path);
+        request.headers(headers -> headers.addAll(requestHeaders));
+        WebClient.RequestHeadersSpec<?> spec = body != null ? request.bodyValue(body) : request;
+        return spec.retrieve()
+                .onStatus(status -> true, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .map(WebClientServerTransport::prepareGatewayResponse);
+    }
+
+    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Flux<DataBuffer>> response) {
+        HttpHeaders headers = ProxyHeaders.responseHeaders(response.getHeaders());
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCodeValue())
+                .headers(headers);
+        Flux<DataBuffer> body = response.getBody() != null ? response.getBody() : Flux.empty();
+
+        if (headers.getContentLength() == 0 || headers.getContentType() == null) {
+            body.subscribe(DataBufferUtils.releaseConsumer());
+            return responseBuilder.build();
+        }
+
+        return responseBuilder.body(new InputStreamResource(new DataBufferInputStream(body)));
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.coalescing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.coalescing")
+public class CoalescingProperties {
+    private boolean enabled = true;
+    private List<Route> routes = new ArrayList<>();
+
+    @Data
+    public static class Route {
+        private String name;
+        private String pattern;
+        private List<String> keyHeaders = List.of("X-Sharer-User-Id", HttpHeaders.IF_NONE_MATCH);
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.coalescing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+public class RequestCoalescer {
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    private final boolean enabled;
+    private final List<Route> routes;
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(CoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.routes = properties.getRoutes().stream()
+                .map(route -> new Route(route, meterRegistry))
+                .collect(Collectors.toList());
+        Gauge.builder("shareit.coalescing.in-flight", inFlight, Map::size)
+                .register(meterRegistry);
+    }
+
+    public Mono<ResponseEntity<Object>> get(String uriTemplate, @Nullable Map<String, Object> parameters,
+                                            HttpHeaders headers, Supplier<Mono<ResponseEntity<Object>>> upstream) {
+        String path = uriTemplate.split("\\?", 2)[0];
+        Route route = enabled ? routes.stream()
+                .filter(candidate -> PATH_MATCHER.match(candidate.route.getPattern(), path))
+                .findFirst()
+                .orElse(null) : null;
+        if (route == null) {
+            return upstream.get();
+        }
+        String uri = UriComponentsBuilder.fromUriString(uriTemplate)
+                .buildAndExpand(parameters != null ? parameters : Map.of())
+                .toUriString();
+        String key = route.key(uri, headers);
+        return Mono.defer(() -> {
+            Flight flight = inFlight.get(key);
+            if (flight == null) {
+                Flight created = new Flight(key, upstream);
+                flight = inFlight.putIfAbsent(key, created);
+                if (flight == null) {
+                    route.upstream.increment();
+                    return created.response;
+                }
+            }
+            route.coalesced.increment();
+            return flight.response;
+        });
+    }
+
+    private static ResponseEntity<Object> buffer(ResponseEntity<Object> response) {
+        if (!(response.getBody() instanceof Resource)) {
+            return response;
+        }
+        try (InputStream body = ((Resource) response.getBody()).getInputStream()) {
+            return ResponseEntity.status(response.getStatusCodeValue())
+                    .headers(response.getHeaders())
+                    .body(StreamUtils.copyToByteArray(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private final class Flight {
+        private final Mono<ResponseEntity<Object>> response;
+
+        Flight(String key, Supplier<Mono<ResponseEntity<Object>>> upstream) {
+            this.response = Mono.defer(upstream)
+                    .publishOn(Schedulers.boundedElastic())
+                    .map(RequestCoalescer::buffer)
+                    .doFinally(signal -> inFlight.remove(key, this))
+                    .cache();
+        }
+    }
+
+    private static class Route {
+        private final CoalescingProperties.Route route;
+        private final Counter upstream;
+        private final Counter coalesced;
+
+        Route(CoalescingProperties.Route route, MeterRegistry meterRegistry) {
+            this.route = route;
+            this.upstream = meterRegistry.counter("shareit.coalescing.requests",
+                    "route", route.getName(), "outcome", "upstream");
+            this.coalesced = meterRegistry.counter("shareit.coalescing.requests",
+                    "route", route.getName(), "outcome", "coalesced");
+            Gauge.builder("shareit.coalescing.collapse-ratio", this, Route::collapseRatio)
+                    .tag("route", route.getName())
+                    .register(meterRegistry);
+        }
+
+        String key(String uri, HttpHeaders headers) {
+            StringBuilder key = new StringBuilder(route.getName()).append(' ').append(uri);
+            for (String name : route.getKeyHeaders()) {
+                key.append('\n').append(name).append(':').append(headers.getOrDefault(name, List.of()));
+            }
+            return key.toString();
+        }
+
+        double collapseRatio() {
+            double total = upstream.count() + coalesced.count();
+            return total == 0 ? 0 : coalesced.count() / total;
+        }
+    }
+}
@@ -1,16 +1,16 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerTransport;
+import ru.practicum.shareit.coalescing.RequestCoalescer;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Service
@@ -18,20 +18,27 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(ServerTransport transport, RequestCoalescer coalescer) {
+        super(transport, coalescer, API_PREFIX);
     }
 
-    public ResponseEntity<Object> get(Long userId, Long itemId) {
+    public Mono<ResponseEntity<Object>> get(Long userId, Long itemId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getAllByUserId(Long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getStatus(Long userId) {
+        return get("/status", userId);
+    }
+
+    public Mono<ResponseEntity<Object>> getAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getAllByUserId(Long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -39,7 +46,7 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> search(Long userId, String text, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> search(Long userId, String text, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
@@ -48,19 +55,19 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> add(long userId, ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> add(long userId, ItemDto itemDto) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> update(long userId, Long itemId, ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> update(long userId, Long itemId, ItemDto itemDto) {
         return patch("/" + itemId, userId,itemDto);
     }
 
-    public ResponseEntity<Object> delete(Long userId, Long itemId) {
+    public Mono<ResponseEntity<Object>> delete(Long userId, Long itemId) {
         return delete("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> addComment(long userId,Long itemId, CommentDto commentDto) {
+    public Mono<ResponseEntity<Object>> addComment(long userId,Long itemId, CommentDto commentDto) {
         Map<String, Object> parameters = Map.of("itemId", itemId);
         return post("/{itemId}/comment", userId, parameters,commentDto);
     }
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final UrlPathHelper PATH_HELPER = new UrlPathHelper();
+    private final RateLimiter rateLimiter;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = PATH_HELPER.getPathWithinApplication(request);
+        String client = client(request);
+        long wait = rateLimiter.tryAcquire(HttpMethod.resolve(request.getMethod()), path, client);
+        if (wait > 0) {
+            long retryAfter = retryAfterSeconds(wait);
+            log.debug("Rate limit exceeded for {} on {} {}, retry after {}s", client, request.getMethod(), path,
+                    retryAfter);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("{\"error\":\"Too many requests\"}");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static String client(HttpServletRequest request) {
+        String userId = request.getHeader(USER_HEADER);
+        if (userId != null) {
+            try {
+                return "user:" + Long.parseLong(userId.trim());
+            } catch (NumberFormatException ignored) {
+                // falls back to the address below
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
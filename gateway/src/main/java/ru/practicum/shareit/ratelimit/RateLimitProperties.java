@@ -0,0 +1,41 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpMethod;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "shareit.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    @NotNull
+    private Duration idleTimeout = Duration.ofMinutes(5);
+    @Positive
+    private int maxBuckets = 100_000;
+    @Valid
+    private List<Policy> policies = new ArrayList<>();
+
+    @Data
+    public static class Policy {
+        @NotBlank
+        private String name;
+        @NotBlank
+        private String pattern;
+        private Set<HttpMethod> methods = Set.of();
+        @Positive
+        private int capacity;
+        @Positive
+        private double refillPerSecond;
+    }
+}
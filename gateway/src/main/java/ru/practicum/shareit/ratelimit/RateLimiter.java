@@ -0,0 +1,112 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+public class RateLimiter {
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    private static final long PRESSURE_SWEEP_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private final List<Route> routes;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final int maxBuckets;
+    private final long idleNanos;
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    private final AtomicLong lastPressureSweep = new AtomicLong(System.nanoTime() - PRESSURE_SWEEP_NANOS);
+    private final Counter evictions;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.routes = properties.getPolicies().stream()
+                .map(policy -> new Route(policy, meterRegistry))
+                .collect(Collectors.toList());
+        this.maxBuckets = properties.getMaxBuckets();
+        this.idleNanos = properties.getIdleTimeout().toNanos();
+        this.evictions = meterRegistry.counter("shareit.rate-limit.evictions");
+        Gauge.builder("shareit.rate-limit.buckets", buckets, Map::size)
+                .register(meterRegistry);
+    }
+
+    public long tryAcquire(HttpMethod method, String path, String client) {
+        return tryAcquire(method, path, client, System.nanoTime());
+    }
+
+    long tryAcquire(HttpMethod method, String path, String client, long now) {
+        Route route = routes.stream()
+                .filter(candidate -> candidate.matches(method, path))
+                .findFirst()
+                .orElse(null);
+        if (route == null) {
+            return 0;
+        }
+        sweep(now);
+        long wait = bucket(route, client, now).tryAcquire(now);
+        (wait > 0 ? route.rejected : route.allowed).increment();
+        return wait;
+    }
+
+    private TokenBucket bucket(Route route, String client, long now) {
+        String key = route.policy.getName() + ':' + client;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxBuckets) {
+            long last = lastPressureSweep.get();
+            if (now - last >= PRESSURE_SWEEP_NANOS && lastPressureSweep.compareAndSet(last, now)) {
+                evict(now, 0);
+            }
+            if (buckets.size() >= maxBuckets) {
+                return route.overflow;
+            }
+        }
+        return buckets.computeIfAbsent(key, ignored ->
+                new TokenBucket(route.policy.getCapacity(), route.policy.getRefillPerSecond(), now));
+    }
+
+    private void sweep(long now) {
+        long last = lastSweep.get();
+        if (now - last >= idleNanos && lastSweep.compareAndSet(last, now)) {
+            evict(now, idleNanos);
+        }
+    }
+
+    private void evict(long now, long idleFor) {
+        buckets.values().removeIf(bucket -> {
+            boolean idle = bucket.isIdle(now, idleFor);
+            if (idle) {
+                evictions.increment();
+            }
+            return idle;
+        });
+    }
+
+    private static class Route {
+        private final RateLimitProperties.Policy policy;
+        private final TokenBucket overflow;
+        private final Counter allowed;
+        private final Counter rejected;
+
+        Route(RateLimitProperties.Policy policy, MeterRegistry meterRegistry) {
+            this.policy = policy;
+            this.overflow = new TokenBucket(policy.getCapacity(), policy.getRefillPerSecond(), System.nanoTime());
+            this.allowed = meterRegistry.counter("shareit.rate-limit.requests",
+                    "policy", policy.getName(), "outcome", "allowed");
+            this.rejected = meterRegistry.counter("shareit.rate-limit.requests",
+                    "policy", policy.getName(), "outcome", "rejected");
+        }
+
+        boolean matches(HttpMethod method, String path) {
+            return (policy.getMethods().isEmpty() || policy.getMethods().contains(method))
+                    && PATH_MATCHER.match(policy.getPattern(), path);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import javax.validation.Valid;
@@ -21,20 +22,22 @@ public class RequestController {
     private final RequestClient requestClient;
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> get(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> get(@RequestHeader("X-Sharer-User-Id") Long userId,
                                       @PathVariable Long requestId) {
         log.info("Get request by id={}, userId={}", requestId, userId);
         return requestClient.get(userId, requestId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllByOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Get all request by owner userId={}", userId);
-        return requestClient.getAllByOwner(userId);
+    public Mono<ResponseEntity<Object>> getAllByOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                @Positive @RequestParam(name = "size", defaultValue = "20") Integer size,
+                                                @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Get all request by owner userId={}, size={}, cursor={}", userId, size, cursor);
+        return requestClient.getAllByOwner(userId, size, cursor);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
                                          @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
                                          @Positive @RequestParam(name = "size", defaultValue = "20") Integer size) {
         log.info("Get all request by user userId={}, from={}, size={}", userId, from, size);
@@ -42,7 +45,7 @@ public class RequestController {
     }
 
     @PostMapping
-    public ResponseEntity<Object> add(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public Mono<ResponseEntity<Object>> add(@RequestHeader("X-Sharer-User-Id") Long userId,
                                       @RequestBody @Valid ItemRequestDto itemRequestDto) {
         log.info("Creating request {}, userId={}", itemRequestDto, userId);
         return requestClient.add(userId, itemRequestDto);
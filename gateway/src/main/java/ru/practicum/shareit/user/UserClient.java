@@ -1,46 +1,58 @@
 package ru.practicum.shareit.user;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerTransport;
+import ru.practicum.shareit.coalescing.RequestCoalescer;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public UserClient(ServerTransport transport, RequestCoalescer coalescer) {
+        super(transport, coalescer, API_PREFIX);
     }
 
-    public ResponseEntity<Object> get(Long userId) {
+    public Mono<ResponseEntity<Object>> get(Long userId) {
         return get("/" + userId);
     }
 
-    public ResponseEntity<Object> getAll() {
-        return get("");
+    public Mono<ResponseEntity<Object>> getAll(Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("size", size);
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+            return get("?size={size}&cursor={cursor}", null, parameters);
+        }
+        return get("?size={size}", null, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> export() {
+        return stream("/export");
     }
 
-    public ResponseEntity<Object> add(UserDto userDto) {
+    public Mono<ResponseEntity<Object>> add(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> update(Long userId, UserDto userDto) {
+    public Mono<ResponseEntity<Object>> addAll(List<UserDto> userDtos) {
+        return post("/batch", userDtos);
+    }
+
+    public Mono<ResponseEntity<Object>> update(Long userId, UserDto userDto) {
         return patch("/" + userId, userDto);
     }
 
-    public ResponseEntity<Object> delete(Long userId) {
+    public Mono<ResponseEntity<Object>> delete(Long userId) {
         return delete("/" + userId);
     }
 
@@ -4,45 +4,65 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/users")
 @RequiredArgsConstructor
 @Slf4j
+@Validated
 public class UserController {
     private final UserClient userClient;
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> get(@PathVariable Long userId) {
+    public Mono<ResponseEntity<Object>> get(@PathVariable Long userId) {
         log.info("Get User by Id={}", userId);
         return userClient.get(userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAll() {
-        log.info("Get all user");
-        return userClient.getAll();
+    public Mono<ResponseEntity<Object>> getAll(@Positive @RequestParam(name = "size", defaultValue = "20") Integer size,
+                                               @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Get all user size={}, cursor={}", size, cursor);
+        return userClient.getAll(size, cursor);
+    }
+
+    @GetMapping("/export")
+    public Mono<ResponseEntity<Object>> export() {
+        log.info("Export all users");
+        return userClient.export();
     }
 
     @PostMapping
-    public ResponseEntity<Object> add(@RequestBody @Valid UserDto userDto) {
+    public Mono<ResponseEntity<Object>> add(@RequestBody @Valid UserDto userDto) {
         log.info("Creating user {}", userDto);
         return userClient.add(userDto);
     }
 
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> addAll(@RequestBody @NotEmpty @Size(max = 500) List<@Valid UserDto> userDtos) {
+        log.info("Creating {} users in batch", userDtos.size());
+        return userClient.addAll(userDtos);
+    }
+
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> update(@PathVariable Long userId,
+    public Mono<ResponseEntity<Object>> update(@PathVariable Long userId,
                                          @RequestBody UserDto userDto) {
         log.info("Update User {}, userId={}", userDto, userId);
         return userClient.update(userId, userDto);
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> delete(@PathVariable Long userId) {
+    public Mono<ResponseEntity<Object>> delete(@PathVariable Long userId) {
         log.info("Delete User by id={}", userId);
         return userClient.delete(userId);
     }
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.client;
+
+import io.netty.buffer.ByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.util.StreamUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DataBufferInputStreamTest {
+    private final NettyDataBufferFactory factory = new NettyDataBufferFactory(ByteBufAllocator.DEFAULT);
+
+    @Test
+    public void testReadsAllBuffersAndReleasesThem() throws IOException {
+        DataBuffer first = buffer("{\"id\":");
+        DataBuffer second = buffer("1}");
+
+        try (InputStream input = new DataBufferInputStream(Flux.just(first, second))) {
+            assertEquals("{\"id\":1}", StreamUtils.copyToString(input, StandardCharsets.UTF_8));
+        }
+
+        assertEquals(0, NettyDataBufferFactory.toByteBuf(first).refCnt());
+        assertEquals(0, NettyDataBufferFactory.toByteBuf(second).refCnt());
+    }
+
+    @Test
+    public void testCloseCancelsAndReleasesCurrentBuffer() throws IOException {
+        Sinks.Many<DataBuffer> sink = Sinks.many().unicast().onBackpressureBuffer();
+        DataBuffer first = buffer("first");
+        sink.tryEmitNext(first);
+
+        InputStream input = new DataBufferInputStream(sink.asFlux());
+        assertEquals('f', input.read());
+        input.close();
+
+        assertEquals(0, NettyDataBufferFactory.toByteBuf(first).refCnt());
+        assertEquals(0, sink.currentSubscriberCount());
+    }
+
+    @Test
+    public void testUpstreamErrorFailsRead() {
+        InputStream input = new DataBufferInputStream(Flux.error(new IllegalStateException("reset")));
+
+        assertThrows(IOException.class, input::read);
+    }
+
+    private DataBuffer buffer(String value) {
+        return factory.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
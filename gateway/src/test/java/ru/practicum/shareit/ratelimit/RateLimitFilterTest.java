@@ -0,0 +1,89 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.validation.BindValidationException;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class RateLimitFilterTest {
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setName("items");
+        policy.setPattern("/items/**");
+        policy.setCapacity(1);
+        policy.setRefillPerSecond(0.4);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setPolicies(List.of(policy));
+        filter = new RateLimitFilter(new RateLimiter(properties, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    @SneakyThrows
+    public void testRejectsWithRetryAfter() {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("1"), new MockHttpServletResponse(), chain);
+        assertNotNull(chain.getRequest());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain rejectedChain = new MockFilterChain();
+        filter.doFilter(request("1"), response, rejectedChain);
+        assertNull(rejectedChain.getRequest());
+        assertEquals(429, response.getStatus());
+        assertEquals("3", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals("{\"error\":\"Too many requests\"}", response.getContentAsString());
+    }
+
+    @Test
+    @SneakyThrows
+    public void testClientsAreKeyedByUser() {
+        filter.doFilter(request("1"), new MockHttpServletResponse(), new MockFilterChain());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("2"), response, new MockFilterChain());
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    public void testRetryAfterRoundsUp() {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        assertEquals(1, RateLimitFilter.retryAfterSeconds(1));
+        assertEquals(1, RateLimitFilter.retryAfterSeconds(second));
+        assertEquals(2, RateLimitFilter.retryAfterSeconds(second + 1));
+        assertEquals(3, RateLimitFilter.retryAfterSeconds(5 * second / 2));
+    }
+
+    @Test
+    public void testPolicyValidation() {
+        new ApplicationContextRunner()
+                .withBean(SimpleMeterRegistry.class)
+                .withUserConfiguration(RateLimitConfig.class)
+                .withPropertyValues(
+                        "shareit.rate-limit.policies[0].name=items",
+                        "shareit.rate-limit.policies[0].pattern=/items/**",
+                        "shareit.rate-limit.policies[0].capacity=0",
+                        "shareit.rate-limit.policies[0].refill-per-second=0")
+                .run(context -> assertThat(context).getFailure().hasRootCauseInstanceOf(BindValidationException.class));
+    }
+
+    private static MockHttpServletRequest request(String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+        request.addHeader("X-Sharer-User-Id", userId);
+        return request;
+    }
+}
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private MeterRegistry meterRegistry;
+    private long now;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        now = System.nanoTime();
+    }
+
+    @Test
+    public void testUnmatchedPathIsNotLimited() {
+        RateLimiter rateLimiter = rateLimiter(10, policy("items", "/items/**", Set.of(), 1));
+        assertEquals(0, rateLimiter.tryAcquire(HttpMethod.GET, "/users/1", "user:1", now));
+        assertEquals(0, rateLimiter.tryAcquire(HttpMethod.GET, "/users/1", "user:1", now));
+        assertEquals(0.0, buckets());
+    }
+
+    @Test
+    public void testFirstMatchingPolicyWins() {
+        RateLimiter rateLimiter = rateLimiter(10,
+                policy("writes", "/bookings/**", Set.of(HttpMethod.POST), 1),
+                policy("bookings", "/bookings/**", Set.of(), 2));
+        assertEquals(0, rateLimiter.tryAcquire(HttpMethod.POST, "/bookings", "user:1", now));
+        assertTrue(rateLimiter.tryAcquire(HttpMethod.POST, "/bookings", "user:1", now) > 0);
+        assertEquals(0, rateLimiter.tryAcquire(HttpMethod.GET, "/bookings/1", "user:1", now));
+        assertEquals(0, rateLimiter.tryAcquire(HttpMethod.GET, "/bookings/1", "user:1", now));
+        assertTrue(rateLimiter.tryAcquire(HttpMethod.GET, "/bookings/1", "user:1", now) > 0);
+        assertEquals(1.0, meterRegistry.counter("shareit.rate-limit.requests",
+                "policy", "writes", "outcome", "rejected").count());
+    }
+
+    @Test
+    public void testClientsHaveSeparateBuckets() {
+        RateLimiter rateLimiter = rateLimiter(10, policy("items", "/items/**", Set.of(), 1));
+        assertEquals(0, rateLimiter.tryAcquire(HttpMethod.GET, "/items/1", "user:1", now));
+        assertTrue(rateLimiter.tryAcquire(HttpMethod.GET, "/items/1", "user:1", now) > 0);
+        assertEquals(0, rateLimiter.tryAcquire(HttpMethod.GET, "/items/1", "user:2", now));
+        assertEquals(2.0, buckets());
+    }
+
+    @Test
+    public void testPressureEvictsRefilledBuckets() {
+        RateLimiter rateLimiter = rateLimiter(2, policy("items", "/items/**", Set.of(), 1));
+        rateLimiter.tryAcquire(HttpMethod.GET, "/items/1", "user:1", now);
+        rateLimiter.tryAcquire(HttpMethod.GET, "/items/1", "user:2", now);
+
+        assertEquals(0, rateLimiter.tryAcquire(HttpMethod.GET, "/items/1", "user:3", now + 2 * SECOND));
+        assertEquals(1.0, buckets());
+        assertEquals(2.0, meterRegistry.counter("shareit.rate-limit.evictions").count());
+    }
+
+    @Test
+    public void testPressureFallsBackToOverflowBucket() {
+        RateLimiter rateLimiter = rateLimiter(1, policy("items", "/items/**", Set.of(), 1));
+        now = System.nanoTime();
+        rateLimiter.tryAcquire(HttpMethod.GET, "/items/1", "user:1", now);
+
+        assertEquals(0, rateLimiter.tryAcquire(HttpMethod.GET, "/items/1", "user:2", now));
+        assertTrue(rateLimiter.tryAcquire(HttpMethod.GET, "/items/1", "user:3", now) > 0);
+        assertEquals(1.0, buckets());
+        assertEquals(0.0, meterRegistry.counter("shareit.rate-limit.evictions").count());
+    }
+
+    private RateLimiter rateLimiter(int maxBuckets, RateLimitProperties.Policy... policies) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxBuckets(maxBuckets);
+        properties.setPolicies(List.of(policies));
+        return new RateLimiter(properties, meterRegistry);
+    }
+
+    private static RateLimitProperties.Policy policy(String name, String pattern, Set<HttpMethod> methods, int capacity) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setName(name);
+        policy.setPattern(pattern);
+        policy.setMethods(methods);
+        policy.setCapacity(capacity);
+        policy.setRefillPerSecond(1);
+        return policy;
+    }
+
+    private double buckets() {
+        return meterRegistry.get("shareit.rate-limit.buckets").gauge().value();
+    }
+}
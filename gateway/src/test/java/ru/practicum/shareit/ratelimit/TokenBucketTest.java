@@ -0,0 +1,51 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenBucketTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testBurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 1, 0);
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(SECOND, bucket.tryAcquire(0));
+    }
+
+    @Test
+    public void testRefill() {
+        TokenBucket bucket = new TokenBucket(2, 4, 0);
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(SECOND / 4, bucket.tryAcquire(0));
+        assertEquals(SECOND / 8, bucket.tryAcquire(SECOND / 8));
+        assertEquals(0, bucket.tryAcquire(SECOND / 4));
+        assertEquals(SECOND / 4, bucket.tryAcquire(SECOND / 4));
+    }
+
+    @Test
+    public void testRefillDoesNotExceedCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 1, 0);
+        long later = 10 * SECOND;
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+
+    @Test
+    public void testIsIdle() {
+        TokenBucket bucket = new TokenBucket(1, 1, 0);
+        bucket.tryAcquire(0);
+        assertFalse(bucket.isIdle(SECOND / 2, 0));
+        assertTrue(bucket.isIdle(SECOND, 0));
+        assertFalse(bucket.isIdle(SECOND, SECOND));
+    }
+}
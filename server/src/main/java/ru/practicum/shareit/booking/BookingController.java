@@ -1,10 +1,17 @@
 package ru.practicum.shareit.booking;
 
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchUpdateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -17,21 +24,38 @@ public class BookingController {
     private final BookingService bookingService;
 
     @GetMapping("/{bookingId}")
-    public BookingResponseDto get(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                  @PathVariable Long bookingId) {
-        return BookingMapper.toBookingResponseDto(bookingService.get(bookingId, userId));
+    public ResponseEntity<BookingResponseDto> get(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                  @PathVariable Long bookingId) {
+        BookingResponseDto booking = BookingMapper.toBookingResponseDto(bookingService.get(bookingId, userId));
+        return ResponseEntity.ok().eTag(EntityTags.of(booking)).body(booking);
     }
 
     @GetMapping
-    public List<BookingResponseDto> getAllByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                   @RequestParam(defaultValue = "ALL") String state,
-                                                   @RequestParam(defaultValue = "0") Integer from,
-                                                   @RequestParam(defaultValue = "20") Integer size) {
-        return bookingService.getAllByUserId(state, userId, from, size).stream()
+    public ResponseEntity<List<BookingResponseDto>> getAllByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                   @RequestParam(defaultValue = "ALL") String state,
+                                                                   @RequestParam(defaultValue = "0") Integer from,
+                                                                   @RequestParam(defaultValue = "20") Integer size,
+                                                                   @RequestParam(required = false) String cursor) {
+        List<Booking> bookings = cursor == null && from > 0
+                ? bookingService.getAllByUserId(state, userId, from, size)
+                : bookingService.getAllByUserId(state, userId, cursor != null ? PageCursor.decode(cursor) : null, size);
+        return toPage(bookings, size);
+    }
+
+    @GetMapping("/archive")
+    public List<BookingResponseDto> getArchiveByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                       @RequestParam(defaultValue = "0") Integer from,
+                                                       @RequestParam(defaultValue = "20") Integer size) {
+        return bookingService.getArchiveByUserId(userId, from, size).stream()
                 .map(BookingMapper::toBookingResponseDto)
                 .collect(Collectors.toList());
     }
 
+    @GetMapping("/summary")
+    public BookingSummaryDto getSummaryByUserId(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return BookingMapper.toBookingSummaryDto(bookingService.getSummaryByUserId(userId));
+    }
+
     @PostMapping
     public BookingResponseDto add(@RequestHeader("X-Sharer-User-Id") Long userId,
                                   @RequestBody BookingDto bookingDto) {
@@ -44,13 +68,46 @@ public class BookingController {
         return BookingMapper.toBookingResponseDto(bookingService.update(bookingId, userId, approved));
     }
 
+    @PatchMapping("/batch")
+    public List<BookingBatchResultDto> updateAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                 @RequestBody BookingBatchUpdateDto batchDto) {
+        return bookingService.updateAll(batchDto.getBookingIds(), userId, batchDto.getApproved());
+    }
+
     @GetMapping("/owner")
-    public List<BookingResponseDto> getAllByItemOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                      @RequestParam(defaultValue = "ALL") String state,
-                                                      @RequestParam(defaultValue = "0") Integer from,
-                                                      @RequestParam(defaultValue = "20") Integer size) {
-        return bookingService.getAllByItemOwner(state, userId, from, size).stream()
+    public ResponseEntity<List<BookingResponseDto>> getAllByItemOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                      @RequestParam(defaultValue = "ALL") String state,
+                                                                      @RequestParam(defaultValue = "0") Integer from,
+                                                                      @RequestParam(defaultValue = "20") Integer size,
+                                                                      @RequestParam(required = false) String cursor) {
+        List<Booking> bookings = cursor == null && from > 0
+                ? bookingService.getAllByItemOwner(state, userId, from, size)
+                : bookingService.getAllByItemOwner(state, userId, cursor != null ? PageCursor.decode(cursor) : null, size);
+        return toPage(bookings, size);
+    }
+
+    @GetMapping("/owner/archive")
+    public List<BookingResponseDto> getArchiveByItemOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                          @RequestParam(defaultValue = "0") Integer from,
+                                                          @RequestParam(defaultValue = "20") Integer size) {
+        return bookingService.getArchiveByItemOwner(userId, from, size).stream()
                 .map(BookingMapper::toBookingResponseDto)
                 .collect(Collectors.toList());
     }
+
+    @GetMapping("/owner/summary")
+    public BookingSummaryDto getSummaryByItemOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return BookingMapper.toBookingSummaryDto(bookingService.getSummaryByItemOwner(userId));
+    }
+
+    private ResponseEntity<List<BookingResponseDto>> toPage(List<Booking> bookings, Integer size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!bookings.isEmpty() && bookings.size() == size) {
+            Booking last = bookings.get(bookings.size() - 1);
+            response.header(PageCursor.NEXT_CURSOR_HEADER, PageCursor.of(last.getStart(), last.getId()).encode());
+        }
+        return response.body(bookings.stream()
+                .map(BookingMapper::toBookingResponseDto)
+                .collect(Collectors.toList()));
+    }
 }
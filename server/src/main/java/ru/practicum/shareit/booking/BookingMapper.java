@@ -3,9 +3,14 @@ package ru.practicum.shareit.booking;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingForItemDto;
 import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingShort;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Map;
+
 public class BookingMapper {
 
     public static Booking toBooking(BookingDto bookingDto) {
@@ -48,4 +53,24 @@ public class BookingMapper {
                 .bookerId(booking.getBooker().getId())
                 .build();
     }
+
+    public static BookingForItemDto toBookingForItemDto(BookingShort booking) {
+        return BookingForItemDto.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .bookerId(booking.getBookerId())
+                .build();
+    }
+
+    public static BookingSummaryDto toBookingSummaryDto(Map<BookingState, Long> counts) {
+        return BookingSummaryDto.builder()
+                .all(counts.getOrDefault(BookingState.ALL, 0L))
+                .current(counts.getOrDefault(BookingState.CURRENT, 0L))
+                .past(counts.getOrDefault(BookingState.PAST, 0L))
+                .future(counts.getOrDefault(BookingState.FUTURE, 0L))
+                .waiting(counts.getOrDefault(BookingState.WAITING, 0L))
+                .rejected(counts.getOrDefault(BookingState.REJECTED, 0L))
+                .build();
+    }
 }
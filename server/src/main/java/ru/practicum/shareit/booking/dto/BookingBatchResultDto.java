@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+@Data
+@Builder
+public class BookingBatchResultDto {
+    private Long bookingId;
+    private BookingStatus status;
+    private String error;
+}
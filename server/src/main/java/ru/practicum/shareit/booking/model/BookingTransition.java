@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "booking_transitions", schema = "public")
+public class BookingTransition {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "booking_id")
+    private Long bookingId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status")
+    private BookingStatus fromStatus;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status")
+    private BookingStatus toStatus;
+    @Column(name = "changed_at")
+    private LocalDateTime changedAt;
+}
@@ -1,41 +1,113 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingShort;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
 
-    List<Booking> findAllByBookerIdOrderByStartDesc(Long userId, Pageable pageable);
+    @Override
+    @EntityGraph(Booking.WITH_ITEM_AND_BOOKER)
+    Optional<Booking> findById(Long id);
 
-    List<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(Long userId, LocalDateTime endDateTime, Pageable pageable);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b JOIN FETCH b.item i JOIN FETCH b.booker u " +
+            "WHERE b.id IN :ids AND i.deletedAt IS NULL AND u.deletedAt IS NULL")
+    List<Booking> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
 
-    List<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(Long userId, LocalDateTime startDateTime, Pageable pageable);
+    boolean existsByItemIdAndStatusInAndStartBeforeAndEndAfter(Long itemId, Collection<BookingStatus> statuses,
+                                                               LocalDateTime end, LocalDateTime start);
 
-    List<Booking> findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long userId, LocalDateTime startDateTime, LocalDateTime endDateTime, Pageable pageable);
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status WHERE b.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status);
 
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(Long userId, BookingStatus bookingStatus, Pageable pageable);
+    @Query(value = "SELECT b.* FROM bookings_archive b JOIN items i ON i.id = b.item_id " +
+            "WHERE b.booker_id = :bookerId AND i.deleted_at IS NULL " +
+            "ORDER BY b.start_date DESC, b.id DESC LIMIT :size OFFSET :from", nativeQuery = true)
+    List<Booking> findArchivedByBookerId(@Param("bookerId") Long bookerId, @Param("from") int from, @Param("size") int size);
 
-    List<Booking> findAllByItemOwnerIdOrderByStartDesc(Long ownerId, Pageable pageable);
+    @Query(value = "SELECT b.* FROM bookings_archive b JOIN items i ON i.id = b.item_id " +
+            "WHERE i.owner_id = :ownerId AND i.deleted_at IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.id = b.booker_id AND u.deleted_at IS NOT NULL) " +
+            "ORDER BY b.start_date DESC, b.id DESC LIMIT :size OFFSET :from", nativeQuery = true)
+    List<Booking> findArchivedByItemOwnerId(@Param("ownerId") Long ownerId, @Param("from") int from, @Param("size") int size);
 
-    List<Booking> findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(Long ownerId, LocalDateTime endDateTime, Pageable pageable);
+    Booking findFirstByItemIdAndStartBeforeAndStatusAndBookerDeletedAtIsNullOrderByStartDesc(Long itemId,
+                                                                                          LocalDateTime currentTime,
+                                                                                          BookingStatus status);
 
-    List<Booking> findAllByItemOwnerIdAndStartAfterOrderByStartDesc(Long ownerId, LocalDateTime startDateTime, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long ownerId, LocalDateTime startDateTime, LocalDateTime endDateTime, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndStatusOrderByStartDesc(Long ownerId, BookingStatus status, Pageable pageable);
-
-    Booking findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(Long itemId, LocalDateTime currentTime, BookingStatus status);
-
-    Booking findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(Long itemId, LocalDateTime currentTime, BookingStatus status);
+    Booking findFirstByItemIdAndStartAfterAndStatusAndBookerDeletedAtIsNullOrderByStartAsc(Long itemId,
+                                                                                        LocalDateTime currentTime,
+                                                                                        BookingStatus status);
 
     Booking findFirstByItemIdAndBookerIdAndEndBeforeAndStatus(Long itemId, Long userId, LocalDateTime currentTime, BookingStatus status);
 
-}
\ No newline at end of file
+    @Query(value = "SELECT b.id AS id, b.start_date AS start, b.end_date AS \"end\", b.item_id AS itemId, b.booker_id AS bookerId " +
+            "FROM (SELECT bk.*, ROW_NUMBER() OVER (PARTITION BY bk.item_id ORDER BY bk.start_date DESC) AS rn " +
+            "FROM bookings bk WHERE bk.item_id IN (:itemIds) AND bk.start_date < :currentTime AND bk.status = :status " +
+            "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.id = bk.booker_id AND u.deleted_at IS NOT NULL)) b " +
+            "WHERE b.rn = 1", nativeQuery = true)
+    List<BookingShort> findLastByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                         @Param("currentTime") LocalDateTime currentTime,
+                                         @Param("status") String status);
+
+    @Query(value = "SELECT b.id AS id, b.start_date AS start, b.end_date AS \"end\", b.item_id AS itemId, b.booker_id AS bookerId " +
+            "FROM (SELECT bk.*, ROW_NUMBER() OVER (PARTITION BY bk.item_id ORDER BY bk.start_date ASC) AS rn " +
+            "FROM bookings bk WHERE bk.item_id IN (:itemIds) AND bk.start_date > :currentTime AND bk.status = :status " +
+            "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.id = bk.booker_id AND u.deleted_at IS NOT NULL)) b " +
+            "WHERE b.rn = 1", nativeQuery = true)
+    List<BookingShort> findNextByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                         @Param("currentTime") LocalDateTime currentTime,
+                                         @Param("status") String status);
+
+    @Query(value = "SELECT b.id AS id, b.start_date AS start, b.end_date AS \"end\", b.item_id AS itemId, b.booker_id AS bookerId " +
+            "FROM bookings b WHERE b.item_id = :itemId AND b.end_date > :currentTime AND b.status IN ('WAITING', 'APPROVED') " +
+            "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.id = b.booker_id AND u.deleted_at IS NOT NULL)",
+            nativeQuery = true)
+    List<BookingShort> findActiveByItemId(@Param("itemId") Long itemId, @Param("currentTime") LocalDateTime currentTime);
+
+    @Query(value = "SELECT b.id AS id, b.start_date AS start, b.end_date AS \"end\", b.item_id AS itemId, b.booker_id AS bookerId " +
+            "FROM bookings b JOIN items i ON i.id = b.item_id JOIN users u ON u.id = b.booker_id " +
+            "WHERE b.status = 'WAITING' AND i.deleted_at IS NULL AND u.deleted_at IS NULL",
+            nativeQuery = true)
+    List<BookingShort> findWaiting();
+
+    @Query(value = "SELECT b.id AS id, b.start_date AS start, b.end_date AS \"end\", b.item_id AS itemId, b.booker_id AS bookerId " +
+            "FROM bookings b JOIN items i ON i.id = b.item_id JOIN users u ON u.id = b.booker_id " +
+            "WHERE b.end_date > :currentTime AND b.status = 'APPROVED' AND i.deleted_at IS NULL AND u.deleted_at IS NULL",
+            nativeQuery = true)
+    List<BookingShort> findApprovedEndingAfter(@Param("currentTime") LocalDateTime currentTime);
+
+    @Query(value = "SELECT b.id AS id, b.start_date AS start, b.end_date AS \"end\", b.item_id AS itemId, b.booker_id AS bookerId " +
+            "FROM bookings b JOIN items i ON i.id = b.item_id JOIN users u ON u.id = b.booker_id " +
+            "WHERE b.item_id IN (:itemIds) AND b.end_date > :currentTime AND b.status = 'APPROVED' " +
+            "AND i.deleted_at IS NULL AND u.deleted_at IS NULL", nativeQuery = true)
+    List<BookingShort> findApprovedByItemIdInEndingAfter(@Param("itemIds") Collection<Long> itemIds,
+                                                         @Param("currentTime") LocalDateTime currentTime);
+
+    @Query(value = "SELECT b.id AS id, b.start_date AS start, b.end_date AS \"end\", b.item_id AS itemId, b.booker_id AS bookerId " +
+            "FROM (SELECT id, start_date, end_date, item_id, booker_id, status FROM bookings " +
+            "UNION ALL SELECT id, start_date, end_date, item_id, booker_id, status FROM bookings_archive) b " +
+            "JOIN users u ON u.id = b.booker_id " +
+            "WHERE b.item_id = :itemId AND b.status = 'APPROVED' AND b.start_date < :to AND b.end_date > :from " +
+            "AND u.deleted_at IS NULL", nativeQuery = true)
+    List<BookingShort> findApprovedByItemIdBetween(@Param("itemId") Long itemId,
+                                                   @Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to);
+
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface BookingRepositoryCustom {
+
+    List<Booking> findAllByBookerIdAndState(Long bookerId, BookingState state, LocalDateTime currentTime,
+                                            PageCursor cursor, int size);
+
+    List<Booking> findAllByBookerIdAndState(Long bookerId, BookingState state, LocalDateTime currentTime,
+                                            int from, int size);
+
+    List<Booking> findAllByItemOwnerIdAndState(Long ownerId, BookingState state, LocalDateTime currentTime,
+                                               PageCursor cursor, int size);
+
+    List<Booking> findAllByItemOwnerIdAndState(Long ownerId, BookingState state, LocalDateTime currentTime,
+                                               int from, int size);
+
+    Map<BookingState, Long> countByBookerIdGroupByState(Long bookerId, LocalDateTime currentTime);
+
+    Map<BookingState, Long> countByItemOwnerIdGroupByState(Long ownerId, LocalDateTime currentTime);
+}
@@ -0,0 +1,173 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Fetch;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    private static final String FETCH_GRAPH = "javax.persistence.fetchgraph";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Booking> findAllByBookerIdAndState(Long bookerId, BookingState state, LocalDateTime currentTime,
+                                                   PageCursor cursor, int size) {
+        return find(this::bookerPredicate, bookerId, state, currentTime, cursor, 0, size);
+    }
+
+    @Override
+    public List<Booking> findAllByBookerIdAndState(Long bookerId, BookingState state, LocalDateTime currentTime,
+                                                   int from, int size) {
+        return find(this::bookerPredicate, bookerId, state, currentTime, null, from, size);
+    }
+
+    @Override
+    public List<Booking> findAllByItemOwnerIdAndState(Long ownerId, BookingState state, LocalDateTime currentTime,
+                                                      PageCursor cursor, int size) {
+        return find(this::ownerPredicate, ownerId, state, currentTime, cursor, 0, size);
+    }
+
+    @Override
+    public List<Booking> findAllByItemOwnerIdAndState(Long ownerId, BookingState state, LocalDateTime currentTime,
+                                                      int from, int size) {
+        return find(this::ownerPredicate, ownerId, state, currentTime, null, from, size);
+    }
+
+    @Override
+    public Map<BookingState, Long> countByBookerIdGroupByState(Long bookerId, LocalDateTime currentTime) {
+        return count(this::bookerPredicate, bookerId, currentTime);
+    }
+
+    @Override
+    public Map<BookingState, Long> countByItemOwnerIdGroupByState(Long ownerId, LocalDateTime currentTime) {
+        return count(this::ownerPredicate, ownerId, currentTime);
+    }
+
+    private List<Booking> find(UserPredicate userPredicate, Long userId, BookingState state, LocalDateTime currentTime,
+                               PageCursor cursor, int from, int size) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = builder.createQuery(Booking.class);
+        Root<Booking> booking = query.from(Booking.class);
+        booking.fetch("item");
+        booking.fetch("booker");
+        Path<LocalDateTime> start = booking.get("start");
+        Path<Long> id = booking.get("id");
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(userPredicate.of(query, builder, booking, userId));
+        if (state != BookingState.ALL) {
+            predicates.add(statePredicate(builder, booking, state, currentTime));
+        }
+        if (cursor != null) {
+            predicates.add(builder.or(
+                    builder.lessThan(start, cursor.getTime()),
+                    builder.and(builder.equal(start, cursor.getTime()), builder.lessThan(id, cursor.getId()))));
+        }
+        query.select(booking)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(builder.desc(start), builder.desc(id));
+        return entityManager.createQuery(query)
+                .setHint(FETCH_GRAPH, entityManager.getEntityGraph(Booking.WITH_ITEM_AND_BOOKER))
+                .setFirstResult(from)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    private Map<BookingState, Long> count(UserPredicate userPredicate, Long userId, LocalDateTime currentTime) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Booking> booking = query.from(Booking.class);
+        List<BookingState> states = new ArrayList<>();
+        List<Expression<?>> selections = new ArrayList<>();
+        for (BookingState state : BookingState.values()) {
+            if (state == BookingState.UNKNOWN) {
+                continue;
+            }
+            states.add(state);
+            selections.add(state == BookingState.ALL
+                    ? builder.count(booking)
+                    : builder.sum(builder.<Long>selectCase()
+                    .when(statePredicate(builder, booking, state, currentTime), 1L)
+                    .otherwise(0L)));
+        }
+        query.multiselect(selections.toArray(new Expression<?>[0]))
+                .where(userPredicate.of(query, builder, booking, userId));
+        Tuple row = entityManager.createQuery(query).getSingleResult();
+        Map<BookingState, Long> counts = new EnumMap<>(BookingState.class);
+        for (int i = 0; i < states.size(); i++) {
+            Number count = (Number) row.get(i);
+            counts.put(states.get(i), count == null ? 0L : count.longValue());
+        }
+        return counts;
+    }
+
+    private Predicate statePredicate(CriteriaBuilder builder, Root<Booking> booking, BookingState state,
+                                     LocalDateTime currentTime) {
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        switch (state) {
+            case CURRENT:
+                return builder.and(builder.lessThan(start, currentTime), builder.greaterThan(end, currentTime));
+            case PAST:
+                return builder.and(builder.lessThan(start, currentTime), builder.lessThan(end, currentTime));
+            case FUTURE:
+                return builder.greaterThan(start, currentTime);
+            case WAITING:
+                return builder.equal(booking.get("status"), BookingStatus.WAITING);
+            case REJECTED:
+                return builder.equal(booking.get("status"), BookingStatus.REJECTED);
+            default:
+                return builder.conjunction();
+        }
+    }
+
+    private Predicate bookerPredicate(CriteriaQuery<?> query, CriteriaBuilder builder, Root<Booking> booking,
+                                     Long bookerId) {
+        return builder.and(builder.equal(booking.get("booker").get("id"), bookerId),
+                builder.isNull(join(booking, "item").get("deletedAt")));
+    }
+
+    private Predicate ownerPredicate(CriteriaQuery<?> query, CriteriaBuilder builder, Root<Booking> booking,
+                                    Long ownerId) {
+        Subquery<Long> items = query.subquery(Long.class);
+        Root<Item> item = items.from(Item.class);
+        items.select(item.get("id"))
+                .where(builder.equal(item.get("owner").get("id"), ownerId));
+        return builder.and(booking.get("item").get("id").in(items),
+                builder.isNull(join(booking, "booker").get("deletedAt")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Join<Booking, T> join(Root<Booking> booking, String attribute) {
+        for (Fetch<Booking, ?> fetch : booking.getFetches()) {
+            if (fetch.getAttribute().getName().equals(attribute)) {
+                return (Join<Booking, T>) fetch;
+            }
+        }
+        return booking.join(attribute);
+    }
+
+    private interface UserPredicate {
+        Predicate of(CriteriaQuery<?> query, CriteriaBuilder builder, Root<Booking> booking, Long userId);
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.BookingTransition;
+
+import java.util.List;
+
+@Repository
+public interface BookingTransitionRepository extends JpaRepository<BookingTransition, Long> {
+
+    List<BookingTransition> findAllByBookingIdOrderByChangedAt(Long bookingId);
+}
@@ -0,0 +1,155 @@
+package ru.practicum.shareit.booking.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingShort;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingTransition;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingTransitionRepository;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingExpiryScheduler {
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 64;
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long RETRY_DELAY_MILLIS = 5000;
+    private final BookingRepository bookingRepository;
+    private final BookingTransitionRepository bookingTransitionRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final TimingWheel<Long> wheel = new TimingWheel<>(TICK_MILLIS, WHEEL_SIZE, System.currentTimeMillis());
+    private final List<Long> due = new ArrayList<>();
+    private final Map<Long, Integer> attempts = new HashMap<>();
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        for (BookingShort booking : bookingRepository.findWaiting()) {
+            add(booking.getId(), booking.getStart());
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::tick, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public void schedule(Long bookingId, LocalDateTime start) {
+        TransactionCallbacks.afterCommit(() -> add(bookingId, start));
+    }
+
+    public void tick() {
+        List<Long> expired;
+        synchronized (wheel) {
+            wheel.advance(System.currentTimeMillis(), due::add);
+            expired = new ArrayList<>(due);
+            due.clear();
+        }
+        for (int from = 0; from < expired.size(); from += BATCH_SIZE) {
+            List<Long> ids = expired.subList(from, Math.min(from + BATCH_SIZE, expired.size()));
+            try {
+                expire(ids);
+                synchronized (wheel) {
+                    attempts.keySet().removeAll(ids);
+                }
+            } catch (RuntimeException exception) {
+                retry(ids, exception);
+            }
+        }
+    }
+
+    private void retry(List<Long> ids, RuntimeException exception) {
+        long now = System.currentTimeMillis();
+        List<Long> abandoned = new ArrayList<>();
+        int attempt = 0;
+        synchronized (wheel) {
+            for (Long id : ids) {
+                int failures = attempts.merge(id, 1, Integer::sum);
+                if (failures >= MAX_ATTEMPTS) {
+                    attempts.remove(id);
+                    abandoned.add(id);
+                } else {
+                    attempt = Math.max(attempt, failures);
+                    addAt(now + RETRY_DELAY_MILLIS * (1L << (failures - 1)), id);
+                }
+            }
+        }
+        if (!abandoned.isEmpty()) {
+            // still WAITING, so the next start() picks them up again
+            log.error("Failed to expire bookings {} {} times, giving up until restart", abandoned, MAX_ATTEMPTS, exception);
+        }
+        if (abandoned.size() < ids.size()) {
+            log.warn("Failed to expire {} bookings on attempt {}, retrying later", ids.size() - abandoned.size(),
+                    attempt, exception);
+        }
+    }
+
+    private void expire(List<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> early = new ArrayList<>();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Map<Boolean, List<Booking>> waiting = bookingRepository.findAllByIdInForUpdate(ids).stream()
+                    .filter(booking -> booking.getStatus() == BookingStatus.WAITING)
+                    .collect(Collectors.partitioningBy(booking -> booking.getStart().isAfter(now)));
+            early.addAll(waiting.get(true));
+            List<Booking> expired = waiting.get(false);
+            if (expired.isEmpty()) {
+                return;
+            }
+            bookingRepository.updateStatusByIdIn(expired.stream()
+                    .map(Booking::getId)
+                    .collect(Collectors.toList()), BookingStatus.REJECTED);
+            bookingTransitionRepository.saveAll(expired.stream()
+                    .map(booking -> BookingTransition.builder()
+                            .bookingId(booking.getId())
+                            .fromStatus(BookingStatus.WAITING)
+                            .toStatus(BookingStatus.REJECTED)
+                            .changedAt(now)
+                            .build())
+                    .collect(Collectors.toList()));
+        });
+        early.forEach(booking -> add(booking.getId(), booking.getStart()));
+    }
+
+    private void add(Long bookingId, LocalDateTime start) {
+        long deadline = start.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        synchronized (wheel) {
+            addAt(deadline, bookingId);
+        }
+    }
+
+    private void addAt(long deadline, Long bookingId) {
+        if (!wheel.add(deadline, bookingId)) {
+            due.add(bookingId);
+        }
+    }
+}
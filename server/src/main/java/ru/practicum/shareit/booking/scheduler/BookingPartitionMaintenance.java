@@ -0,0 +1,55 @@
+package ru.practicum.shareit.booking.scheduler;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "shareit.booking.partitioning.enabled", havingValue = "true")
+public class BookingPartitionMaintenance {
+    private final JdbcTemplate jdbcTemplate;
+    private final int aheadMonths;
+    private final int archiveAfterMonths;
+
+    public BookingPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                       @Value("${shareit.booking.partitioning.ahead-months:3}") int aheadMonths,
+                                       @Value("${shareit.booking.archive.after-months:24}") int archiveAfterMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.aheadMonths = aheadMonths;
+        this.archiveAfterMonths = archiveAfterMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public int createPartitions() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        int created = 0;
+        for (int i = 0; i <= aheadMonths; i++) {
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT create_booking_partition(?)",
+                    Boolean.class, month.plusMonths(i)))) {
+                created++;
+            }
+        }
+        return created;
+    }
+
+    public int archivePartitions() {
+        LocalDateTime horizon = LocalDate.now().withDayOfMonth(1).minusMonths(archiveAfterMonths).atStartOfDay();
+        Integer archived = jdbcTemplate.queryForObject("SELECT archive_booking_partitions(?)", Integer.class, horizon);
+        return archived == null ? 0 : archived;
+    }
+
+    @Scheduled(cron = "${shareit.booking.archive.cron:0 30 3 * * *}")
+    public void maintain() {
+        createPartitions();
+        archivePartitions();
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.booking.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+public class TimingWheel<T> {
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long intervalMillis;
+    private final Deque<Timer<T>>[] buckets;
+    private long currentTime;
+    private TimingWheel<T> overflowWheel;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.intervalMillis = tickMillis * wheelSize;
+        this.buckets = new Deque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.currentTime = startMillis - startMillis % tickMillis;
+    }
+
+    public boolean add(long deadlineMillis, T task) {
+        return add(new Timer<>(deadlineMillis, task));
+    }
+
+    public void advance(long nowMillis, Consumer<T> expired) {
+        advanceTimers(nowMillis, timer -> expired.accept(timer.task));
+    }
+
+    private boolean add(Timer<T> timer) {
+        if (timer.deadline < currentTime + tickMillis) {
+            return false;
+        }
+        if (timer.deadline < currentTime + intervalMillis) {
+            buckets[bucketIndex(timer.deadline)].add(timer);
+            return true;
+        }
+        if (overflowWheel == null) {
+            overflowWheel = new TimingWheel<>(intervalMillis, wheelSize, currentTime);
+        }
+        return overflowWheel.add(timer);
+    }
+
+    private void advanceTimers(long nowMillis, Consumer<Timer<T>> due) {
+        while (nowMillis >= currentTime + tickMillis) {
+            currentTime += tickMillis;
+            if (overflowWheel != null) {
+                overflowWheel.advanceTimers(currentTime, timer -> {
+                    if (!add(timer)) {
+                        due.accept(timer);
+                    }
+                });
+            }
+            Deque<Timer<T>> bucket = buckets[bucketIndex(currentTime)];
+            while (!bucket.isEmpty()) {
+                due.accept(bucket.poll());
+            }
+        }
+    }
+
+    private int bucketIndex(long millis) {
+        return (int) ((millis / tickMillis) % wheelSize);
+    }
+
+    private static class Timer<T> {
+        private final long deadline;
+        private final T task;
+
+        private Timer(long deadline, T task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+    }
+}
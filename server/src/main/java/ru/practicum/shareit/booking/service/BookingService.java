@@ -1,18 +1,36 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.pagination.PageCursor;
 
 import java.util.List;
+import java.util.Map;
 
 public interface BookingService {
     Booking get(Long bookingId, Long userId);
 
     List<Booking> getAllByUserId(String state, Long userId, Integer from, Integer size);
 
+    List<Booking> getAllByUserId(String state, Long userId, PageCursor cursor, Integer size);
+
     List<Booking> getAllByItemOwner(String state, Long userId, Integer from, Integer size);
 
+    List<Booking> getAllByItemOwner(String state, Long userId, PageCursor cursor, Integer size);
+
+    List<Booking> getArchiveByUserId(Long userId, Integer from, Integer size);
+
+    List<Booking> getArchiveByItemOwner(Long userId, Integer from, Integer size);
+
+    Map<BookingState, Long> getSummaryByUserId(Long userId);
+
+    Map<BookingState, Long> getSummaryByItemOwner(Long userId);
+
     Booking update(Long bookingId, Long userId, Boolean approved);
 
+    List<BookingBatchResultDto> updateAll(List<Long> bookingIds, Long userId, Boolean approved);
+
     Booking add(Booking booking, Long userId);
 
 }
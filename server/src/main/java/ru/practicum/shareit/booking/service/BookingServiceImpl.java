@@ -1,36 +1,59 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.AllArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingTransition;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingTransitionRepository;
+import ru.practicum.shareit.booking.scheduler.BookingExpiryScheduler;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.BookingOverlapException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.NotImplementedException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemAvailabilityIndex;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserIdRegistry;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final Set<BookingStatus> ACTIVE_STATUSES = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final Pattern OVERLAP_CONSTRAINT = Pattern.compile("ex_bookings\\w*_item_period");
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final UserIdRegistry userIdRegistry;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final BookingExpiryScheduler bookingExpiryScheduler;
+    private final BookingTransitionRepository bookingTransitionRepository;
 
     @Override
     public Booking get(Long bookingId, Long userId) {
-        getUser(userId);
+        checkUser(userId);
         Booking booking = getBookingById(bookingId);
         if (!(booking.getBooker().getId().equals(userId) || booking.getItem().getOwner().getId().equals(userId))) {
             throw new NotFoundException("Нет право на просмотр запроса для пользователя: " + userId);
@@ -40,52 +63,56 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<Booking> getAllByUserId(String state, Long userId, Integer from, Integer size) {
-        getUser(userId);
-        Pageable page = PageRequest.of(from / size, size);
-        switch (BookingState.get(state)) {
-            case ALL:
-                return bookingRepository.findAllByBookerIdOrderByStartDesc(userId, page);
-            case CURRENT:
-                return bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(userId, LocalDateTime.now(), LocalDateTime.now(), page);
-            case PAST:
-                return bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, LocalDateTime.now(), page);
-            case FUTURE:
-                return bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(userId, LocalDateTime.now(), page);
-            case WAITING:
-                return bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING, page);
-            case REJECTED:
-                return bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED, page);
-            default:
-                throw new NotImplementedException("Unknown state: " + state);
-        }
+        checkUser(userId);
+        return bookingRepository.findAllByBookerIdAndState(userId, getState(state), LocalDateTime.now(), from, size);
+    }
+
+    @Override
+    public List<Booking> getAllByUserId(String state, Long userId, PageCursor cursor, Integer size) {
+        checkUser(userId);
+        return bookingRepository.findAllByBookerIdAndState(userId, getState(state), LocalDateTime.now(), validCursor(cursor), size);
     }
 
     @Override
     public List<Booking> getAllByItemOwner(String state, Long userId, Integer from, Integer size) {
-        getUser(userId);
-        Pageable page = PageRequest.of(from, size);
-        switch (BookingState.get(state)) {
-            case ALL:
-                return bookingRepository.findAllByItemOwnerIdOrderByStartDesc(userId, page);
-            case CURRENT:
-                return bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(userId, LocalDateTime.now(), LocalDateTime.now(), page);
-            case PAST:
-                return bookingRepository.findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(userId, LocalDateTime.now(), page);
-            case FUTURE:
-                return bookingRepository.findAllByItemOwnerIdAndStartAfterOrderByStartDesc(userId, LocalDateTime.now(), page);
-            case WAITING:
-                return bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING, page);
-            case REJECTED:
-                return bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED, page);
-            default:
-                throw new NotImplementedException("Unknown state: " + state);
-        }
+        checkUser(userId);
+        return bookingRepository.findAllByItemOwnerIdAndState(userId, getState(state), LocalDateTime.now(), from, size);
+    }
+
+    @Override
+    public List<Booking> getAllByItemOwner(String state, Long userId, PageCursor cursor, Integer size) {
+        checkUser(userId);
+        return bookingRepository.findAllByItemOwnerIdAndState(userId, getState(state), LocalDateTime.now(), validCursor(cursor), size);
+    }
+
+    @Override
+    public List<Booking> getArchiveByUserId(Long userId, Integer from, Integer size) {
+        checkUser(userId);
+        return bookingRepository.findArchivedByBookerId(userId, from, size);
+    }
+
+    @Override
+    public List<Booking> getArchiveByItemOwner(Long userId, Integer from, Integer size) {
+        checkUser(userId);
+        return bookingRepository.findArchivedByItemOwnerId(userId, from, size);
+    }
+
+    @Override
+    public Map<BookingState, Long> getSummaryByUserId(Long userId) {
+        checkUser(userId);
+        return bookingRepository.countByBookerIdGroupByState(userId, LocalDateTime.now());
+    }
+
+    @Override
+    public Map<BookingState, Long> getSummaryByItemOwner(Long userId) {
+        checkUser(userId);
+        return bookingRepository.countByItemOwnerIdGroupByState(userId, LocalDateTime.now());
     }
 
     @Override
     @Transactional
     public Booking update(Long bookingId, Long userId, Boolean approved) {
-        getUser(userId);
+        checkUser(userId);
         Booking booking = getBookingById(bookingId);
         if (!booking.getItem().getOwner().getId().equals(userId)) {
             throw new NotFoundException("нет право на подтверждения запроса");
@@ -94,13 +121,61 @@ public class BookingServiceImpl implements BookingService {
             throw new BadRequestException("статус запрос не ожидание");
         }
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+        bookingTransitionRepository.save(toTransition(booking.getId(), booking.getStatus()));
+        if (approved) {
+            itemAvailabilityIndex.markBooked(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+        }
         return bookingRepository.save(booking);
     }
 
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> updateAll(List<Long> bookingIds, Long userId, Boolean approved) {
+        checkUser(userId);
+        if (bookingIds == null || bookingIds.isEmpty() || approved == null) {
+            throw new BadRequestException("не переданы запросы или решение");
+        }
+        Set<Long> ids = new LinkedHashSet<>(bookingIds);
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("за раз можно обработать не больше " + MAX_BATCH_SIZE + " запросов");
+        }
+        Map<Long, Booking> bookings = bookingRepository.findAllByIdInForUpdate(ids).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        List<BookingBatchResultDto> results = new ArrayList<>();
+        List<Long> updatedIds = new ArrayList<>();
+        for (Long id : ids) {
+            Booking booking = bookings.get(id);
+            BookingBatchResultDto.BookingBatchResultDtoBuilder result = BookingBatchResultDto.builder()
+                    .bookingId(id);
+            if (booking == null) {
+                result.error("запрос не найден:" + id);
+            } else if (!booking.getItem().getOwner().getId().equals(userId)) {
+                result.error("нет право на подтверждения запроса");
+            } else if (booking.getStatus() != BookingStatus.WAITING) {
+                result.status(booking.getStatus()).error("статус запрос не ожидание");
+            } else {
+                updatedIds.add(id);
+                result.status(status);
+                if (approved) {
+                    itemAvailabilityIndex.markBooked(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+                }
+            }
+            results.add(result.build());
+        }
+        if (!updatedIds.isEmpty()) {
+            bookingRepository.updateStatusByIdIn(updatedIds, status);
+            bookingTransitionRepository.saveAll(updatedIds.stream()
+                    .map(id -> toTransition(id, status))
+                    .collect(Collectors.toList()));
+        }
+        return results;
+    }
+
     @Override
     @Transactional
     public Booking add(Booking booking, Long userId) {
-        Item item = getItem(booking.getItem().getId());
+        Item item = lockItem(booking.getItem().getId());
         if (!item.getAvailable()) {
             throw new BadRequestException("предмет не доступен для бронирования");
         }
@@ -111,10 +186,65 @@ public class BookingServiceImpl implements BookingService {
         if (!booking.getEnd().isAfter(booking.getStart())) {
             throw new BadRequestException("время окончания не после старта");
         }
+        if (bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(item.getId(), ACTIVE_STATUSES,
+                booking.getEnd(), booking.getStart())) {
+            throw new BookingOverlapException("предмет уже забронирован на это время");
+        }
         booking.setItem(item);
         booking.setBooker(booker);
         booking.setStatus(BookingStatus.WAITING);
-        return bookingRepository.save(booking);
+        Booking savedBooking;
+        try {
+            savedBooking = bookingRepository.save(booking);
+        } catch (DataIntegrityViolationException exception) {
+            if (isOverlapViolation(exception)) {
+                throw new BookingOverlapException("предмет уже забронирован на это время");
+            }
+            throw exception;
+        }
+        bookingExpiryScheduler.schedule(savedBooking.getId(), savedBooking.getStart());
+        return savedBooking;
+    }
+
+    private static boolean isOverlapViolation(DataIntegrityViolationException exception) {
+        if (!(exception.getCause() instanceof ConstraintViolationException)) {
+            return false;
+        }
+        ConstraintViolationException violation = (ConstraintViolationException) exception.getCause();
+        String constraint = violation.getConstraintName() != null || violation.getSQLException() == null
+                ? violation.getConstraintName()
+                : violation.getSQLException().getMessage();
+        return constraint != null && OVERLAP_CONSTRAINT.matcher(constraint).find();
+    }
+
+    private BookingTransition toTransition(Long bookingId, BookingStatus status) {
+        return BookingTransition.builder()
+                .bookingId(bookingId)
+                .fromStatus(BookingStatus.WAITING)
+                .toStatus(status)
+                .changedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private BookingState getState(String state) {
+        BookingState bookingState = BookingState.get(state);
+        if (bookingState == BookingState.UNKNOWN) {
+            throw new NotImplementedException("Unknown state: " + state);
+        }
+        return bookingState;
+    }
+
+    private PageCursor validCursor(PageCursor cursor) {
+        if (cursor != null && cursor.getTime() == null) {
+            throw new BadRequestException("некорректный курсор: " + cursor.encode());
+        }
+        return cursor;
+    }
+
+    private void checkUser(Long id) {
+        if (!userIdRegistry.exists(id)) {
+            throw new NotFoundException("пользователь не найден id:" + id);
+        }
     }
 
     private User getUser(Long id) {
@@ -122,12 +252,14 @@ public class BookingServiceImpl implements BookingService {
                 .orElseThrow(() -> new NotFoundException("пользователь не найден id:" + id));
     }
 
-    private Item getItem(Long id) {
-        return itemRepository.findById(id)
+    private Item lockItem(Long id) {
+        return itemRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new NotFoundException("предмет не найден id:" + id));
     }
 
     private Booking getBookingById(Long id) {
-        return bookingRepository.findById(id).orElseThrow(() -> new NotFoundException("запрос не найден:" + id));
+        return bookingRepository.findById(id)
+                .filter(booking -> booking.getItem().getDeletedAt() == null && booking.getBooker().getDeletedAt() == null)
+                .orElseThrow(() -> new NotFoundException("запрос не найден:" + id));
     }
 }
@@ -1,13 +1,21 @@
 package ru.practicum.shareit.comment.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.comment.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItemId(long itemId);
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author a JOIN FETCH c.item i " +
+            "WHERE i.id = :itemId AND i.deletedAt IS NULL AND a.deletedAt IS NULL")
+    List<Comment> findAllByItemId(@Param("itemId") long itemId);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author a WHERE c.item.id IN :itemIds AND a.deletedAt IS NULL")
+    List<Comment> findAllByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
 
 }
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Keeps reads on the primary for a client that has just written. After a read-write transaction commits, the
+ * rest of the request and the client's requests for the next {@code window} go to the primary. The window is
+ * the allowed replication lag plus one lag check, so by the time it ends every replica still in rotation has
+ * replayed the write. Clients are told apart by X-Sharer-User-Id, or by address when the header is absent.
+ * Other clients can still read a value older than the write by up to that window. A client that writes from
+ * one address and then reads from another under a different identity is not covered.
+ */
+public class ReadYourWrites {
+    private static final ThreadLocal<Context> CONTEXT = new ThreadLocal<>();
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWrites(Duration window, long maxClients) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxClients)
+                .build();
+    }
+
+    public void begin(String client) {
+        CONTEXT.set(new Context(client, recentWriters.getIfPresent(client) != null));
+    }
+
+    public void end() {
+        CONTEXT.remove();
+    }
+
+    public boolean isPinned() {
+        Context context = CONTEXT.get();
+        return context != null && context.pinned;
+    }
+
+    public void markWrite() {
+        Context context = CONTEXT.get();
+        if (context != null) {
+            context.pinned = true;
+            recentWriters.put(context.client, Boolean.TRUE);
+        }
+    }
+
+    private static class Context {
+        private final String client;
+        private boolean pinned;
+
+        Context(String client, boolean pinned) {
+            this.client = client;
+            this.pinned = pinned;
+        }
+    }
+}
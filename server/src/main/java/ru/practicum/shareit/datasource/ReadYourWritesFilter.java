@@ -0,0 +1,39 @@
+package ru.practicum.shareit.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private final ReadYourWrites readYourWrites;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        readYourWrites.begin(client(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            readYourWrites.end();
+        }
+    }
+
+    private static String client(HttpServletRequest request) {
+        String userId = request.getHeader(USER_HEADER);
+        if (userId != null) {
+            try {
+                return "user:" + Long.parseLong(userId.trim());
+            } catch (NumberFormatException ignored) {
+                // falls back to the address below
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+    private final ReplicationLagMonitor replicationLagMonitor;
+    private final ReadYourWrites readYourWrites;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    ReplicationLagMonitor replicationLagMonitor, ReadYourWrites readYourWrites) {
+        this.replicationLagMonitor = replicationLagMonitor;
+        this.readYourWrites = readYourWrites;
+        setDefaultTargetDataSource(primary);
+        setTargetDataSources(new HashMap<>(replicas));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            TransactionCallbacks.afterCommit(readYourWrites::markWrite);
+            return null;
+        }
+        if (PRIMARY.get() != null || readYourWrites.isPinned()) {
+            return null;
+        }
+        return replicationLagMonitor.nextReplica();
+    }
+
+    /**
+     * Runs {@code action} with read-only connections taken from the primary. Meant for callers that cache what they
+     * read, where a lagging replica would leave a wrong answer behind. Only connections acquired inside
+     * {@code action} are affected, so a lookup inside an ongoing transaction needs a new one.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY.remove();
+            }
+        }
+    }
+}
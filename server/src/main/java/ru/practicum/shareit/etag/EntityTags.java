@@ -0,0 +1,46 @@
+package ru.practicum.shareit.etag;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.springframework.util.DigestUtils;
+
+import java.util.Arrays;
+
+public final class EntityTags {
+    private static final String ANY = "*";
+    private static final String VERSION_SEPARATOR = "-";
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+            .build();
+
+    private EntityTags() {
+    }
+
+    public static String of(Object representation) {
+        try {
+            return "\"" + DigestUtils.md5DigestAsHex(MAPPER.writeValueAsBytes(representation)) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static String of(Long version, Object representation) {
+        return "\"" + version + VERSION_SEPARATOR + of(representation).substring(1);
+    }
+
+    public static boolean matches(String ifMatch, String etag) {
+        return Arrays.stream(ifMatch.split(","))
+                .map(String::trim)
+                .anyMatch(tag -> tag.equals(ANY) || tag.equals(etag));
+    }
+
+    public static boolean matchesVersion(String ifMatch, Long version) {
+        String prefix = "\"" + version + VERSION_SEPARATOR;
+        return Arrays.stream(ifMatch.split(","))
+                .map(String::trim)
+                .anyMatch(tag -> tag.equals(ANY) || tag.startsWith(prefix));
+    }
+}
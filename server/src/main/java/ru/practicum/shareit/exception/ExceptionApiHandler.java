@@ -1,5 +1,6 @@
 package ru.practicum.shareit.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -41,6 +42,24 @@ public class ExceptionApiHandler {
         return Map.of(e.getMessage(), 409);
     }
 
+    @ExceptionHandler(value = BookingOverlapException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, Integer> handleBookingOverlap(BookingOverlapException e) {
+        return Map.of(e.getMessage(), 409);
+    }
+
+    @ExceptionHandler(value = PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public Map<String, Integer> handlePreconditionFailed(PreconditionFailedException e) {
+        return Map.of(e.getMessage(), 412);
+    }
+
+    @ExceptionHandler(value = OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public Map<String, Integer> handleOptimisticLocking(OptimisticLockingFailureException e) {
+        return Map.of("объект изменён другим запросом", 412);
+    }
+
     @ExceptionHandler(value = NotImplementedException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Map<String, String> handleNotImplemented(NotImplementedException e) {
@@ -1,12 +1,27 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.comment.CommentMapper;
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemStatusDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -17,6 +32,7 @@ import java.util.stream.Collectors;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public List<ItemDto> getAllByUser(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
@@ -25,10 +41,29 @@ public class ItemController {
         return itemService.getAllByUser(userId, from, size);
     }
 
+    @GetMapping("/status")
+    public void getStatus(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                          HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        SequenceWriter writer = objectMapper.writerFor(ItemStatusDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .writeValuesAsArray(response.getOutputStream());
+        itemService.getStatus(userId, status -> {
+            try {
+                writer.write(status);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.close();
+    }
+
     @GetMapping("/{itemId}")
-    public ItemDto get(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
-                       @PathVariable Long itemId) {
-        return itemService.get(itemId, userId);
+    public ResponseEntity<ItemDto> get(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                       @PathVariable Long itemId) {
+        ItemDto item = itemService.get(itemId, userId);
+        return ResponseEntity.ok().eTag(EntityTags.of(item.getVersion(), item)).body(item);
     }
 
     @GetMapping("/search")
@@ -48,11 +83,13 @@ public class ItemController {
     }
 
     @PatchMapping("/{itemId}")
-    public ItemDto update(@PathVariable Long itemId,
-                          @RequestHeader(name = "X-Sharer-User-Id") Long userId,
-                          @RequestBody ItemDto itemDto) {
+    public ResponseEntity<ItemDto> update(@PathVariable Long itemId,
+                                          @RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                          @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                          @RequestBody ItemDto itemDto) {
         itemDto.setId(itemId);
-        return ItemMapper.toItemDto(itemService.update(ItemMapper.toItem(itemDto), userId));
+        ItemDto item = ItemMapper.toItemDto(itemService.update(ItemMapper.toItem(itemDto), userId, ifMatch));
+        return ResponseEntity.ok().eTag(EntityTags.of(item.getVersion(), item)).body(item);
     }
 
     @DeleteMapping("/{itemId}")
@@ -60,6 +97,14 @@ public class ItemController {
         itemService.delete(itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getAvailability(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                               @PathVariable Long itemId,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(itemId, userId, from, to);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto addComment(@PathVariable Long itemId,
                                  @RequestHeader("X-Sharer-User-Id") Long userId,
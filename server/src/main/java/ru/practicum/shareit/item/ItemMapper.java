@@ -1,7 +1,10 @@
 package ru.practicum.shareit.item;
 
+import ru.practicum.shareit.booking.dto.BookingForItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemStatusDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemStatus;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 public class ItemMapper {
@@ -13,6 +16,7 @@ public class ItemMapper {
                 .description(item.getDescription())
                 .available(item.getAvailable())
                 .requestId(item.getRequest() != null ? item.getRequest().getId() : null)
+                .version(item.getVersion())
                 .build();
     }
 
@@ -27,4 +31,27 @@ public class ItemMapper {
                                 .id(itemDto.getRequestId()).build() : null)
                 .build();
     }
+
+    public static ItemStatusDto toItemStatusDto(ItemStatus status, long periodSeconds) {
+        return ItemStatusDto.builder()
+                .itemId(status.getItemId())
+                .name(status.getName())
+                .available(status.getAvailable())
+                .currentBooking(status.getCurrentBookingId() != null ?
+                        BookingForItemDto.builder()
+                                .id(status.getCurrentBookingId())
+                                .start(status.getCurrentStart())
+                                .end(status.getCurrentEnd())
+                                .bookerId(status.getCurrentBookerId())
+                                .build() : null)
+                .nextBooking(status.getNextBookingId() != null ?
+                        BookingForItemDto.builder()
+                                .id(status.getNextBookingId())
+                                .start(status.getNextStart())
+                                .end(status.getNextEnd())
+                                .bookerId(status.getNextBookerId())
+                                .build() : null)
+                .utilisation(status.getBookedSeconds() != null ? status.getBookedSeconds() / periodSeconds : 0.0)
+                .build();
+    }
 }
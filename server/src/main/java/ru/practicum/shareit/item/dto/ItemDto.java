@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Builder;
 import lombok.Data;
 import ru.practicum.shareit.booking.dto.BookingForItemDto;
@@ -19,4 +20,6 @@ public class ItemDto {
     private BookingForItemDto lastBooking;
     private BookingForItemDto nextBooking;
     private List<CommentDto> comments;
+    @JsonIgnore
+    private Long version;
 }
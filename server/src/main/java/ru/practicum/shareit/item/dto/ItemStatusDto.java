@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.dto.BookingForItemDto;
+
+@Data
+@Builder
+public class ItemStatusDto {
+    private Long itemId;
+    private String name;
+    private Boolean available;
+    private BookingForItemDto currentBooking;
+    private BookingForItemDto nextBooking;
+    private Double utilisation;
+}
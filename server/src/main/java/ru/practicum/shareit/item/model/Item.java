@@ -1,14 +1,19 @@
 package ru.practicum.shareit.item.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Where;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Data
 @Builder
@@ -16,6 +21,8 @@ import javax.persistence.*;
 @NoArgsConstructor
 @Entity
 @Table(name = "items", schema = "public")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "items")
+@Where(clause = "deleted_at IS NULL")
 public class Item {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -29,5 +36,11 @@ public class Item {
     @OneToOne
     @JoinColumn(name = "request_id")
     private ItemRequest request;
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+    @JsonIgnore
+    @Version
+    private Long version;
 
 }
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item.model;
+
+import java.time.LocalDateTime;
+
+public interface ItemStatus {
+    Long getItemId();
+
+    String getName();
+
+    Boolean getAvailable();
+
+    Long getCurrentBookingId();
+
+    Long getCurrentBookerId();
+
+    LocalDateTime getCurrentStart();
+
+    LocalDateTime getCurrentEnd();
+
+    Long getNextBookingId();
+
+    Long getNextBookerId();
+
+    LocalDateTime getNextStart();
+
+    LocalDateTime getNextEnd();
+
+    Double getBookedSeconds();
+}
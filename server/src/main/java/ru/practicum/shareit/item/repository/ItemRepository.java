@@ -2,19 +2,76 @@ package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemStatus;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
     List<Item> findAllByOwnerId(Long userId, Pageable pageable);
 
-    @Query("SELECT i FROM Item i WHERE LOWER(i.name) LIKE %:keyword% OR LOWER(i.description) LIKE %:keyword% AND i.available=true")
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long id);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Item i SET i.deletedAt = :deletedAt WHERE i.id = :id AND i.deletedAt IS NULL")
+    int softDeleteById(@Param("id") Long id, @Param("deletedAt") LocalDateTime deletedAt);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Item i SET i.deletedAt = :deletedAt WHERE i.owner.id = :ownerId AND i.deletedAt IS NULL")
+    int softDeleteByOwnerId(@Param("ownerId") Long ownerId, @Param("deletedAt") LocalDateTime deletedAt);
+
+    @Query("SELECT i FROM Item i WHERE i.available = true AND (LOWER(i.name) LIKE %:keyword% OR LOWER(i.description) LIKE %:keyword%)")
     List<Item> search(@Param("keyword") String keyword, Pageable pageable);
 
+    @Query(value = "SELECT * FROM items i WHERE i.available = true AND i.deleted_at IS NULL " +
+            "AND (LOWER(i.name) LIKE CONCAT('%', :keyword, '%') OR LOWER(i.description) LIKE CONCAT('%', :keyword, '%')) " +
+            "ORDER BY 2 * word_similarity(:keyword, LOWER(i.name)) + word_similarity(:keyword, LOWER(i.description)) DESC, i.id",
+            nativeQuery = true)
+    List<Item> searchRanked(@Param("keyword") String keyword, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "200"))
+    @Query(value = "SELECT i.id AS itemId, i.name AS name, i.available AS available, " +
+            "c.id AS currentBookingId, c.booker_id AS currentBookerId, c.start_date AS currentStart, c.end_date AS currentEnd, " +
+            "n.id AS nextBookingId, n.booker_id AS nextBookerId, n.start_date AS nextStart, n.end_date AS nextEnd, " +
+            "COALESCE(u.booked, 0) AS bookedSeconds " +
+            "FROM items i " +
+            "LEFT JOIN (SELECT b.id, b.item_id, b.booker_id, b.start_date, b.end_date, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date DESC) AS rn " +
+            "FROM bookings b JOIN items bi ON bi.id = b.item_id WHERE bi.owner_id = :ownerId AND b.status = 'APPROVED' " +
+            "AND NOT EXISTS (SELECT 1 FROM users bu WHERE bu.id = b.booker_id AND bu.deleted_at IS NOT NULL) " +
+            "AND b.start_date <= :currentTime AND b.end_date > :currentTime) c ON c.item_id = i.id AND c.rn = 1 " +
+            "LEFT JOIN (SELECT b.id, b.item_id, b.booker_id, b.start_date, b.end_date, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date) AS rn " +
+            "FROM bookings b JOIN items bi ON bi.id = b.item_id WHERE bi.owner_id = :ownerId AND b.status = 'APPROVED' " +
+            "AND NOT EXISTS (SELECT 1 FROM users bu WHERE bu.id = b.booker_id AND bu.deleted_at IS NOT NULL) " +
+            "AND b.start_date > :currentTime) n ON n.item_id = i.id AND n.rn = 1 " +
+            "LEFT JOIN (SELECT b.item_id, SUM(EXTRACT(EPOCH FROM LEAST(b.end_date, :currentTime)) " +
+            "- EXTRACT(EPOCH FROM GREATEST(b.start_date, :since))) AS booked " +
+            "FROM bookings b JOIN items bi ON bi.id = b.item_id WHERE bi.owner_id = :ownerId AND b.status = 'APPROVED' " +
+            "AND NOT EXISTS (SELECT 1 FROM users bu WHERE bu.id = b.booker_id AND bu.deleted_at IS NOT NULL) " +
+            "AND b.start_date < :currentTime AND b.end_date > :since GROUP BY b.item_id) u ON u.item_id = i.id " +
+            "WHERE i.owner_id = :ownerId AND i.deleted_at IS NULL ORDER BY i.id", nativeQuery = true)
+    Stream<ItemStatus> streamStatusByOwnerId(@Param("ownerId") Long ownerId,
+                                             @Param("currentTime") LocalDateTime currentTime,
+                                             @Param("since") LocalDateTime since);
+
+    @Query(value = "SELECT i.id FROM items i WHERE i.owner_id = :userId " +
+            "UNION SELECT b.item_id FROM bookings b WHERE b.booker_id = :userId AND b.status = 'APPROVED' " +
+            "AND b.end_date > :currentTime", nativeQuery = true)
+    List<Long> findIdsOwnedOrBookedBy(@Param("userId") Long userId, @Param("currentTime") LocalDateTime currentTime);
 }
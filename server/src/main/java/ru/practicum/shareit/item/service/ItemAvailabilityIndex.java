@@ -0,0 +1,225 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingShort;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.datasource.ReplicaRoutingDataSource;
+import ru.practicum.shareit.item.dto.AvailabilityPeriodDto;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+@Component
+@RequiredArgsConstructor
+public class ItemAvailabilityIndex {
+    private static final long SECONDS_IN_HOUR = 3600;
+    private static final long HORIZON_HOURS = 366 * 24;
+    private static final long[] EMPTY = new long[0];
+    private final BookingRepository bookingRepository;
+    private final Object updateLock = new Object();
+    private volatile Slots slots = new Slots(toHour(LocalDateTime.now()), new ConcurrentHashMap<>());
+    private final List<List<Consumer<Slots>>> recorders = new ArrayList<>();
+
+    @PostConstruct
+    @Scheduled(cron = "${shareit.availability.rebuild-cron:0 0 4 * * *}")
+    public synchronized void rebuild() {
+        long baseHour = toHour(LocalDateTime.now());
+        List<Consumer<Slots>> recorded = startRecording();
+        try {
+            Slots rebuilt = new Slots(baseHour, new ConcurrentHashMap<>());
+            List<BookingShort> bookings = ReplicaRoutingDataSource.onPrimary(
+                    () -> bookingRepository.findApprovedEndingAfter(toDateTime(baseHour)));
+            for (BookingShort booking : bookings) {
+                rebuilt.mark(booking.getItemId(), booking.getStart(), booking.getEnd());
+            }
+            synchronized (updateLock) {
+                // updates committed while the query ran may be missing from its result
+                recorded.forEach(update -> update.accept(rebuilt));
+                slots = rebuilt;
+            }
+        } finally {
+            stopRecording(recorded);
+        }
+    }
+
+    public void markBooked(Long itemId, LocalDateTime start, LocalDateTime end) {
+        TransactionCallbacks.afterCommit(() -> update(current -> current.mark(itemId, start, end)));
+    }
+
+    public void evict(Long itemId) {
+        TransactionCallbacks.afterCommit(() -> update(current -> current.items.remove(itemId)));
+    }
+
+    public void reloadAfterCommit(Collection<Long> itemIds) {
+        if (!itemIds.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> reload(itemIds));
+        }
+    }
+
+    public List<AvailabilityPeriodDto> findBooked(Long itemId, LocalDateTime from, LocalDateTime to) {
+        Slots current = slots;
+        LocalDateTime indexStart = toDateTime(current.baseHour);
+        LocalDateTime indexEnd = toDateTime(current.baseHour + HORIZON_HOURS);
+        List<AvailabilityPeriodDto> booked = new ArrayList<>();
+        if (from.isBefore(indexStart)) {
+            collectFromDatabase(booked, itemId, from, to.isBefore(indexStart) ? to : indexStart);
+        }
+        if (to.isAfter(indexStart) && from.isBefore(indexEnd)) {
+            collect(booked, current.items.getOrDefault(itemId, EMPTY), current.baseHour,
+                    from.isAfter(indexStart) ? from : indexStart, to.isBefore(indexEnd) ? to : indexEnd);
+        }
+        if (to.isAfter(indexEnd)) {
+            collectFromDatabase(booked, itemId, from.isAfter(indexEnd) ? from : indexEnd, to);
+        }
+        return booked;
+    }
+
+    private void reload(Collection<Long> itemIds) {
+        LocalDateTime since = toDateTime(slots.baseHour);
+        List<Consumer<Slots>> recorded = startRecording();
+        try {
+            List<BookingShort> bookings = ReplicaRoutingDataSource.onPrimary(
+                    () -> bookingRepository.findApprovedByItemIdInEndingAfter(itemIds, since));
+            synchronized (updateLock) {
+                Slots current = slots;
+                Slots reloaded = new Slots(current.baseHour, new HashMap<>());
+                for (BookingShort booking : bookings) {
+                    reloaded.mark(booking.getItemId(), booking.getStart(), booking.getEnd());
+                }
+                recorded.forEach(update -> update.accept(reloaded));
+                for (Long itemId : itemIds) {
+                    long[] bits = reloaded.items.get(itemId);
+                    if (bits == null) {
+                        current.items.remove(itemId);
+                    } else {
+                        current.items.put(itemId, bits);
+                    }
+                }
+            }
+        } finally {
+            stopRecording(recorded);
+        }
+    }
+
+    private void update(Consumer<Slots> update) {
+        synchronized (updateLock) {
+            update.accept(slots);
+            recorders.forEach(recorded -> recorded.add(update));
+        }
+    }
+
+    private List<Consumer<Slots>> startRecording() {
+        List<Consumer<Slots>> recorded = new ArrayList<>();
+        synchronized (updateLock) {
+            recorders.add(recorded);
+        }
+        return recorded;
+    }
+
+    private void stopRecording(List<Consumer<Slots>> recorded) {
+        synchronized (updateLock) {
+            recorders.removeIf(recorder -> recorder == recorded);
+        }
+    }
+
+    private void collectFromDatabase(List<AvailabilityPeriodDto> booked, Long itemId,
+                                     LocalDateTime from, LocalDateTime to) {
+        long baseHour = toHour(from);
+        long[] bits = EMPTY;
+        for (BookingShort booking : bookingRepository.findApprovedByItemIdBetween(itemId, from, to)) {
+            bits = setSlots(bits, baseHour, booking.getStart(), booking.getEnd().isAfter(to) ? to : booking.getEnd());
+        }
+        collect(booked, bits, baseHour, from, to);
+    }
+
+    private static void collect(List<AvailabilityPeriodDto> booked, long[] bits, long baseHour,
+                                LocalDateTime from, LocalDateTime to) {
+        long first = Math.max(toHour(from), baseHour) - baseHour;
+        long last = Math.min(toHourCeiling(to) - baseHour, (long) bits.length * Long.SIZE);
+        long periodStart = -1;
+        for (long slot = first; slot < last; slot++) {
+            boolean busy = (bits[(int) (slot >>> 6)] & (1L << slot)) != 0;
+            if (busy && periodStart < 0) {
+                periodStart = slot;
+            } else if (!busy && periodStart >= 0) {
+                add(booked, periodStart + baseHour, slot + baseHour, from, to);
+                periodStart = -1;
+            }
+        }
+        if (periodStart >= 0) {
+            add(booked, periodStart + baseHour, last + baseHour, from, to);
+        }
+    }
+
+    private static void add(List<AvailabilityPeriodDto> booked, long startHour, long endHour,
+                            LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = toDateTime(startHour);
+        LocalDateTime end = toDateTime(endHour);
+        AvailabilityPeriodDto period = AvailabilityPeriodDto.builder()
+                .start(start.isBefore(from) ? from : start)
+                .end(end.isAfter(to) ? to : end)
+                .build();
+        AvailabilityPeriodDto previous = booked.isEmpty() ? null : booked.get(booked.size() - 1);
+        if (previous != null && previous.getEnd().equals(period.getStart())) {
+            previous.setEnd(period.getEnd());
+        } else {
+            booked.add(period);
+        }
+    }
+
+    private static long[] setSlots(long[] bits, long baseHour, LocalDateTime start, LocalDateTime end) {
+        long first = Math.max(toHour(start), baseHour) - baseHour;
+        long last = Math.min(toHourCeiling(end) - baseHour, HORIZON_HOURS);
+        if (last <= first) {
+            return bits;
+        }
+        long[] updated = Arrays.copyOf(bits, Math.max(bits.length, (int) ((last + Long.SIZE - 1) >>> 6)));
+        for (long slot = first; slot < last; slot++) {
+            updated[(int) (slot >>> 6)] |= 1L << slot;
+        }
+        return updated;
+    }
+
+    private static long toHour(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / SECONDS_IN_HOUR;
+    }
+
+    private static long toHourCeiling(LocalDateTime dateTime) {
+        LocalDateTime hour = dateTime.truncatedTo(ChronoUnit.HOURS);
+        return toHour(hour) + (hour.equals(dateTime) ? 0 : 1);
+    }
+
+    private static LocalDateTime toDateTime(long hour) {
+        return LocalDateTime.ofEpochSecond(hour * SECONDS_IN_HOUR, 0, ZoneOffset.UTC);
+    }
+
+    private static class Slots {
+        private final long baseHour;
+        private final Map<Long, long[]> items;
+
+        Slots(long baseHour, Map<Long, long[]> items) {
+            this.baseHour = baseHour;
+            this.items = items;
+        }
+
+        void mark(Long itemId, LocalDateTime start, LocalDateTime end) {
+            items.compute(itemId, (id, bits) -> {
+                long[] updated = setSlots(bits == null ? EMPTY : bits, baseHour, start, end);
+                return updated.length == 0 ? null : updated;
+            });
+        }
+    }
+}
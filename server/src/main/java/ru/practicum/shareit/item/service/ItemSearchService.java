@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+public interface ItemSearchService {
+
+    List<Item> search(String keyword, Pageable pageable);
+}
@@ -1,10 +1,14 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemStatusDto;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
 
@@ -14,11 +18,15 @@ public interface ItemService {
 
     Item add(Item item, Long userId);
 
-    Item update(Item item, Long userId);
+    Item update(Item item, Long userId, String ifMatch);
 
     void delete(Long itemId);
 
     List<Item> search(String keyword, Integer from, Integer size);
 
     Comment addComment(Comment comment, Long itemId, Long userId);
+
+    ItemAvailabilityDto getAvailability(Long itemId, Long userId, LocalDateTime from, LocalDateTime to);
+
+    void getStatus(Long userId, Consumer<ItemStatusDto> consumer);
 }
@@ -8,54 +8,91 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.dto.BookingForItemDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingShort;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.comment.CommentMapper;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.etag.EntityTags;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.PermissionException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.AvailabilityPeriodDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemStatusDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemStatus;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.purge.model.PurgeJob;
+import ru.practicum.shareit.purge.model.PurgeTarget;
+import ru.practicum.shareit.purge.repository.PurgeJobRepository;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserIdRegistry;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    private static final int MAX_AVAILABILITY_DAYS = 366;
+    private static final int STATUS_PERIOD_DAYS = 30;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final PurgeJobRepository purgeJobRepository;
+    private final ItemSearchService itemSearchService;
+    private final UserIdRegistry userIdRegistry;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
 
     @Override
     public List<ItemDto> getAllByUser(Long userId, Integer from, Integer size) {
-        getUserById(userId);
+        checkUser(userId);
         Pageable page = PageRequest.of(from, size);
-        List<ItemDto> itemDtos = itemRepository.findAllByOwnerId(userId, page).stream()
+        List<Item> items = itemRepository.findAllByOwnerId(userId, page);
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingForItemDto> nextBookings = bookingRepository
+                .findNextByItemIds(itemIds, now, BookingStatus.APPROVED.name()).stream()
+                .collect(Collectors.toMap(BookingShort::getItemId, BookingMapper::toBookingForItemDto, (first, second) -> first));
+        Map<Long, BookingForItemDto> lastBookings = bookingRepository
+                .findLastByItemIds(itemIds, now, BookingStatus.APPROVED.name()).stream()
+                .collect(Collectors.toMap(BookingShort::getItemId, BookingMapper::toBookingForItemDto, (first, second) -> first));
+        Map<Long, List<CommentDto>> comments = commentRepository.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+
+        return items.stream()
                 .map(ItemMapper::toItemDto)
                 .peek(itemDto -> {
-                    itemDto.setNextBooking(getNextBooking(itemDto.getId()));
-                    itemDto.setLastBooking(getLastBooking(itemDto.getId()));
-                    itemDto.setComments(getComments(itemDto.getId()));
+                    itemDto.setNextBooking(nextBookings.get(itemDto.getId()));
+                    itemDto.setLastBooking(lastBookings.get(itemDto.getId()));
+                    itemDto.setComments(comments.getOrDefault(itemDto.getId(), Collections.emptyList()));
                 })
                 .sorted(Comparator.comparing(ItemDto::getId))
                 .collect(Collectors.toList());
-
-        return itemDtos;
     }
 
     @Override
@@ -76,7 +113,7 @@ public class ItemServiceImpl implements ItemService {
         User user = getUserById(userId);
         item.setOwner(user);
         if (item.getRequest() != null) {
-            item.setRequest(itemRequestRepository.findById(item.getRequest().getId())
+            item.setRequest(itemRequestRepository.findActiveById(item.getRequest().getId())
                     .orElseThrow(() -> new NotFoundException("запрос не найден id:" + item.getRequest().getId())));
         }
         return itemRepository.save(item);
@@ -84,7 +121,7 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     @Transactional
-    public Item update(Item item, Long userId) {
+    public Item update(Item item, Long userId, String ifMatch) {
         if (!getItem(item.getId()).getOwner().getId().equals(userId)) {
             throw new PermissionException("Пользователь не являющегося собственником");
         }
@@ -92,6 +129,9 @@ public class ItemServiceImpl implements ItemService {
         User user = getUserById(userId);
         item.setOwner(user);
         Item currentItem = getItem(item.getId());
+        if (ifMatch != null && !EntityTags.matchesVersion(ifMatch, currentItem.getVersion())) {
+            throw new PreconditionFailedException("предмет изменён другим запросом:" + item.getId());
+        }
         if (item.getName() != null && !item.getName().isBlank()) {
             currentItem.setName(item.getName());
         }
@@ -107,7 +147,12 @@ public class ItemServiceImpl implements ItemService {
     @Override
     @Transactional
     public void delete(Long itemId) {
-        itemRepository.deleteById(itemId);
+        LocalDateTime now = LocalDateTime.now();
+        if (itemRepository.softDeleteById(itemId, now) == 0) {
+            throw new NotFoundException("предмет не найден:" + itemId);
+        }
+        purgeJobRepository.save(PurgeJob.of(PurgeTarget.ITEM, itemId, now));
+        itemAvailabilityIndex.evict(itemId);
     }
 
     @Override
@@ -116,7 +161,7 @@ public class ItemServiceImpl implements ItemService {
         if (keyword.isBlank()) {
             return Collections.emptyList();
         }
-        return itemRepository.search(keyword.toLowerCase(), page);
+        return itemSearchService.search(keyword.toLowerCase(), page);
     }
 
     @Override
@@ -129,11 +174,50 @@ public class ItemServiceImpl implements ItemService {
         return commentRepository.save(comment);
     }
 
+    @Override
+    public ItemAvailabilityDto getAvailability(Long itemId, Long userId, LocalDateTime from, LocalDateTime to) {
+        checkUser(userId);
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("предмет не найден:" + itemId);
+        }
+        if (!to.isAfter(from)) {
+            throw new BadRequestException("конец периода не после начала");
+        }
+        if (from.plusDays(MAX_AVAILABILITY_DAYS).isBefore(to)) {
+            throw new BadRequestException("период больше " + MAX_AVAILABILITY_DAYS + " дней");
+        }
+        List<AvailabilityPeriodDto> booked = itemAvailabilityIndex.findBooked(itemId, from, to);
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .available(booked.isEmpty())
+                .booked(booked)
+                .build();
+    }
+
+    @Override
+    public void getStatus(Long userId, Consumer<ItemStatusDto> consumer) {
+        checkUser(userId);
+        LocalDateTime now = LocalDateTime.now();
+        long periodSeconds = TimeUnit.DAYS.toSeconds(STATUS_PERIOD_DAYS);
+        try (Stream<ItemStatus> statuses = itemRepository.streamStatusByOwnerId(userId, now, now.minusDays(STATUS_PERIOD_DAYS))) {
+            statuses.map(status -> ItemMapper.toItemStatusDto(status, periodSeconds))
+                    .forEach(consumer);
+        }
+    }
+
     private Item getItem(Long itemId) {
         return itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("предмет не найден:" + itemId));
     }
 
+    private void checkUser(Long userId) {
+        if (!userIdRegistry.exists(userId)) {
+            throw new NotFoundException("пользователь не найден id:" + userId);
+        }
+    }
+
     private User getUserById(Long userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("пользователь не найден id:" + userId));
@@ -146,12 +230,12 @@ public class ItemServiceImpl implements ItemService {
     }
 
     private BookingForItemDto getNextBooking(Long itemId) {
-        Booking booking = bookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(itemId, LocalDateTime.now(), BookingStatus.APPROVED);
+        Booking booking = bookingRepository.findFirstByItemIdAndStartAfterAndStatusAndBookerDeletedAtIsNullOrderByStartAsc(itemId, LocalDateTime.now(), BookingStatus.APPROVED);
         return booking != null ? BookingMapper.toBookingForItemDto(booking) : null;
     }
 
     private BookingForItemDto getLastBooking(Long itemId) {
-        Booking booking = bookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(itemId, LocalDateTime.now(), BookingStatus.APPROVED);
+        Booking booking = bookingRepository.findFirstByItemIdAndStartBeforeAndStatusAndBookerDeletedAtIsNullOrderByStartDesc(itemId, LocalDateTime.now(), BookingStatus.APPROVED);
         return booking != null ? BookingMapper.toBookingForItemDto(booking) : null;
     }
 
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+@Service
+@AllArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "like", matchIfMissing = true)
+public class LikeItemSearchService implements ItemSearchService {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String keyword, Pageable pageable) {
+        return itemRepository.search(keyword, pageable);
+    }
+}
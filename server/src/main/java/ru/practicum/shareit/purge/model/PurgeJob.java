@@ -0,0 +1,46 @@
+package ru.practicum.shareit.purge.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "purge_jobs", schema = "public")
+public class PurgeJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Enumerated(EnumType.STRING)
+    private PurgeTarget target;
+    @Column(name = "target_id")
+    private Long targetId;
+    private Integer step;
+    @Column(name = "purged_rows")
+    private Long purgedRows;
+    private Integer attempts;
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime created;
+    private LocalDateTime updated;
+
+    public static PurgeJob of(PurgeTarget target, Long targetId, LocalDateTime created) {
+        return PurgeJob.builder()
+                .target(target)
+                .targetId(targetId)
+                .step(0)
+                .purgedRows(0L)
+                .attempts(0)
+                .nextAttemptAt(created)
+                .created(created)
+                .updated(created)
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.purge.repository;
+
+import org.hibernate.LockOptions;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.purge.model.PurgeJob;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PurgeJobRepository extends JpaRepository<PurgeJob, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JPA_LOCK_TIMEOUT, value = "" + LockOptions.SKIP_LOCKED))
+    @Query("SELECT j FROM PurgeJob j WHERE j.attempts < :maxAttempts AND j.nextAttemptAt <= :currentTime " +
+            "ORDER BY j.nextAttemptAt, j.id")
+    List<PurgeJob> findDueForUpdate(@Param("maxAttempts") int maxAttempts,
+                                    @Param("currentTime") LocalDateTime currentTime,
+                                    Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE PurgeJob j SET j.step = :step, j.purgedRows = j.purgedRows + :rows, j.attempts = 0, " +
+            "j.updated = :updated WHERE j.id = :id")
+    int updateProgress(@Param("id") Long id, @Param("step") int step, @Param("rows") long rows,
+                       @Param("updated") LocalDateTime updated);
+}
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.purge.scheduler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.purge.model.PurgeJob;
+import ru.practicum.shareit.purge.model.PurgeTarget;
+import ru.practicum.shareit.purge.repository.PurgeJobRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+@EnableScheduling
+public class PurgeWorker {
+    private static final int JOBS_PER_RUN = 10;
+    private static final int MAX_BACKOFF_SHIFT = 6;
+    private static final Map<PurgeTarget, List<String>> STEPS = Map.of(
+            PurgeTarget.USER, List.of(
+                    "DELETE FROM booking_transitions WHERE id IN (SELECT t.id FROM booking_transitions t " +
+                            "JOIN bookings b ON b.id = t.booking_id JOIN items i ON i.id = b.item_id " +
+                            "WHERE i.owner_id = ? LIMIT ?)",
+                    "DELETE FROM bookings WHERE id IN (SELECT b.id FROM bookings b JOIN items i ON i.id = b.item_id " +
+                            "WHERE i.owner_id = ? LIMIT ?)",
+                    "DELETE FROM booking_transitions WHERE id IN (SELECT t.id FROM booking_transitions t " +
+                            "JOIN bookings_archive b ON b.id = t.booking_id JOIN items i ON i.id = b.item_id " +
+                            "WHERE i.owner_id = ? LIMIT ?)",
+                    "DELETE FROM bookings_archive WHERE id IN (SELECT b.id FROM bookings_archive b " +
+                            "JOIN items i ON i.id = b.item_id WHERE i.owner_id = ? LIMIT ?)",
+                    "DELETE FROM comments WHERE id IN (SELECT c.id FROM comments c JOIN items i ON i.id = c.item_id " +
+                            "WHERE i.owner_id = ? LIMIT ?)",
+                    "DELETE FROM items WHERE id IN (SELECT id FROM items WHERE owner_id = ? LIMIT ?)",
+                    "DELETE FROM booking_transitions WHERE id IN (SELECT t.id FROM booking_transitions t " +
+                            "JOIN bookings b ON b.id = t.booking_id WHERE b.booker_id = ? LIMIT ?)",
+                    "DELETE FROM bookings WHERE id IN (SELECT id FROM bookings WHERE booker_id = ? LIMIT ?)",
+                    "DELETE FROM booking_transitions WHERE id IN (SELECT t.id FROM booking_transitions t " +
+                            "JOIN bookings_archive b ON b.id = t.booking_id WHERE b.booker_id = ? LIMIT ?)",
+                    "DELETE FROM bookings_archive WHERE id IN (SELECT id FROM bookings_archive WHERE booker_id = ? LIMIT ?)",
+                    "DELETE FROM comments WHERE id IN (SELECT id FROM comments WHERE author_id = ? LIMIT ?)",
+                    "UPDATE items SET request_id = NULL WHERE id IN (SELECT i.id FROM items i " +
+                            "JOIN requests r ON r.id = i.request_id WHERE r.requester_id = ? LIMIT ?)",
+                    "DELETE FROM requests WHERE id IN (SELECT id FROM requests WHERE requester_id = ? LIMIT ?)"),
+            PurgeTarget.ITEM, List.of(
+                    "DELETE FROM booking_transitions WHERE id IN (SELECT t.id FROM booking_transitions t " +
+                            "JOIN bookings b ON b.id = t.booking_id WHERE b.item_id = ? LIMIT ?)",
+                    "DELETE FROM bookings WHERE id IN (SELECT id FROM bookings WHERE item_id = ? LIMIT ?)",
+                    "DELETE FROM booking_transitions WHERE id IN (SELECT t.id FROM booking_transitions t " +
+                            "JOIN bookings_archive b ON b.id = t.booking_id WHERE b.item_id = ? LIMIT ?)",
+                    "DELETE FROM bookings_archive WHERE id IN (SELECT id FROM bookings_archive WHERE item_id = ? LIMIT ?)",
+                    "DELETE FROM comments WHERE id IN (SELECT id FROM comments WHERE item_id = ? LIMIT ?)"));
+    private static final Map<PurgeTarget, String> TARGETS = Map.of(
+            PurgeTarget.USER, "DELETE FROM users WHERE id = ? AND deleted_at IS NOT NULL",
+            PurgeTarget.ITEM, "DELETE FROM items WHERE id = ? AND deleted_at IS NOT NULL");
+    private final PurgeJobRepository purgeJobRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final int chunkSize;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+
+    public PurgeWorker(PurgeJobRepository purgeJobRepository,
+                       JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${shareit.purge.chunk-size:1000}") int chunkSize,
+                       @Value("${shareit.purge.max-attempts:10}") int maxAttempts,
+                       @Value("${shareit.purge.retry-delay:1m}") Duration retryDelay) {
+        this.purgeJobRepository = purgeJobRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = retryDelay;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.purge.delay:5000}")
+    public void purgeAll() {
+        for (PurgeJob job : claim()) {
+            try {
+                purge(job);
+            } catch (RuntimeException exception) {
+                if (job.getAttempts() >= maxAttempts) {
+                    log.error("Purge job {} ({} {}) failed {} times and will not be retried",
+                            job.getId(), job.getTarget(), job.getTargetId(), job.getAttempts(), exception);
+                } else {
+                    log.warn("Purge job {} ({} {}) failed on attempt {}, next attempt after {}",
+                            job.getId(), job.getTarget(), job.getTargetId(), job.getAttempts(),
+                            job.getNextAttemptAt(), exception);
+                }
+            }
+        }
+    }
+
+    private List<PurgeJob> claim() {
+        return transaction.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<PurgeJob> jobs = purgeJobRepository.findDueForUpdate(maxAttempts, now,
+                    PageRequest.of(0, JOBS_PER_RUN));
+            // the next attempt time doubles as a lease, so other instances skip the job while it runs
+            for (PurgeJob job : jobs) {
+                job.setAttempts(job.getAttempts() + 1);
+                job.setNextAttemptAt(now.plus(retryDelay.multipliedBy(
+                        1L << Math.min(job.getAttempts() - 1, MAX_BACKOFF_SHIFT))));
+            }
+            return jobs;
+        });
+    }
+
+    public void purge(PurgeJob job) {
+        List<String> steps = STEPS.get(job.getTarget());
+        int step = job.getStep();
+        while (step < steps.size()) {
+            int currentStep = step;
+            Integer purged = transaction.execute(status -> {
+                int rows = jdbcTemplate.update(steps.get(currentStep), job.getTargetId(), chunkSize);
+                purgeJobRepository.updateProgress(job.getId(), rows < chunkSize ? currentStep + 1 : currentStep,
+                        rows, LocalDateTime.now());
+                return rows;
+            });
+            if (purged == null || purged < chunkSize) {
+                step++;
+            }
+        }
+        transaction.executeWithoutResult(status -> {
+            jdbcTemplate.update(TARGETS.get(job.getTarget()), job.getTargetId());
+            purgeJobRepository.deleteById(job.getId());
+        });
+    }
+}
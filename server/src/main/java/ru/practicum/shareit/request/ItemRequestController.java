@@ -1,8 +1,11 @@
 package ru.practicum.shareit.request;
 
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
@@ -20,16 +23,26 @@ public class ItemRequestController {
     private final ItemRequestService itemRequestService;
 
     @GetMapping
-    public List<ItemRequestDto> getAllByOwner(@RequestHeader(name = "X-Sharer-User-Id") Long userId) {
-        return itemRequestService.getAllByOwner(userId).stream()
+    public ResponseEntity<List<ItemRequestDto>> getAllByOwner(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                                              @RequestParam(defaultValue = "20") Integer size,
+                                                              @RequestParam(required = false) String cursor) {
+        List<ItemRequestDto> itemRequests = itemRequestService
+                .getAllByOwner(userId, cursor != null ? PageCursor.decode(cursor) : null, size).stream()
                 .map(ItemRequestMapper::toItemRequestDto)
                 .collect(Collectors.toList());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!itemRequests.isEmpty() && itemRequests.size() == size) {
+            ItemRequestDto last = itemRequests.get(itemRequests.size() - 1);
+            response.header(PageCursor.NEXT_CURSOR_HEADER, PageCursor.of(last.getCreated(), last.getId()).encode());
+        }
+        return response.body(itemRequests);
     }
 
     @GetMapping("/{requestId}")
-    public ItemRequestDto get(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
-                              @PathVariable Long requestId) {
-        return ItemRequestMapper.toItemRequestDto(itemRequestService.get(requestId, userId));
+    public ResponseEntity<ItemRequestDto> get(@RequestHeader(name = "X-Sharer-User-Id") Long userId,
+                                              @PathVariable Long requestId) {
+        ItemRequestDto itemRequest = ItemRequestMapper.toItemRequestDto(itemRequestService.get(requestId, userId));
+        return ResponseEntity.ok().eTag(EntityTags.of(itemRequest)).body(itemRequest);
     }
 
     @GetMapping("/all")
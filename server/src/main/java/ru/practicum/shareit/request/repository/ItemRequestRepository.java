@@ -1,17 +1,41 @@
 package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    List<ItemRequest> findAllByRequesterIdNotOrderByCreatedDesc(Long userId, Pageable pageable);
+    @Query("SELECT r FROM ItemRequest r JOIN FETCH r.requester u WHERE r.id = :id AND u.deletedAt IS NULL")
+    Optional<ItemRequest> findActiveById(@Param("id") Long id);
 
-    List<ItemRequest> findAllByRequesterIdOrderByCreatedDesc(Long userId);
+    @Query("SELECT r FROM ItemRequest r JOIN FETCH r.requester u WHERE u.id <> :userId AND u.deletedAt IS NULL " +
+            "ORDER BY r.created DESC")
+    List<ItemRequest> findAllByRequesterIdNotOrderByCreatedDesc(@Param("userId") Long userId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "requester")
+    List<ItemRequest> findAllByRequesterIdOrderByCreatedDescIdDesc(Long userId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "requester")
+    @Query("SELECT r FROM ItemRequest r WHERE r.requester.id = :userId " +
+            "AND (r.created < :created OR (r.created = :created AND r.id < :id)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findAllByRequesterIdBefore(@Param("userId") Long userId,
+                                                 @Param("created") LocalDateTime created,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
+
+    @Query("SELECT DISTINCT r FROM ItemRequest r LEFT JOIN FETCH r.items i LEFT JOIN FETCH i.owner WHERE r.id IN :ids")
+    List<ItemRequest> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
 
 }
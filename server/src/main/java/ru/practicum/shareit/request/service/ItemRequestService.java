@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.service;
 
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
@@ -9,7 +10,7 @@ public interface ItemRequestService {
 
     List<ItemRequest> getAll(Long userId, Integer from, Integer size);
 
-    List<ItemRequest> getAllByOwner(Long userId);
+    List<ItemRequest> getAllByOwner(Long userId, PageCursor cursor, Integer size);
 
     ItemRequest add(ItemRequest itemRequest, Long userId);
 }
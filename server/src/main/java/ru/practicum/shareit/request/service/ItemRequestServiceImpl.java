@@ -5,14 +5,18 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserIdRegistry;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
@@ -21,25 +25,33 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
+    private final UserIdRegistry userIdRegistry;
 
 
     @Override
     public ItemRequest get(Long requestId, Long userId) {
-        getUser(userId);
+        checkUser(userId);
         return getItemRequest(requestId);
     }
 
     @Override
     public List<ItemRequest> getAll(Long userId, Integer from, Integer size) {
-        getUser(userId);
+        checkUser(userId);
         Pageable page = PageRequest.of(from, size);
-        return itemRequestRepository.findAllByRequesterIdNotOrderByCreatedDesc(userId, page);
+        return fetchItems(itemRequestRepository.findAllByRequesterIdNotOrderByCreatedDesc(userId, page));
     }
 
     @Override
-    public List<ItemRequest> getAllByOwner(Long userId) {
-        getUser(userId);
-        return itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(userId);
+    public List<ItemRequest> getAllByOwner(Long userId, PageCursor cursor, Integer size) {
+        checkUser(userId);
+        Pageable page = PageRequest.of(0, size);
+        if (cursor == null) {
+            return fetchItems(itemRequestRepository.findAllByRequesterIdOrderByCreatedDescIdDesc(userId, page));
+        }
+        if (cursor.getTime() == null) {
+            throw new BadRequestException("некорректный курсор: " + cursor.encode());
+        }
+        return fetchItems(itemRequestRepository.findAllByRequesterIdBefore(userId, cursor.getTime(), cursor.getId(), page));
     }
 
     @Override
@@ -51,11 +63,26 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return itemRequestRepository.save(itemRequest);
     }
 
+    private List<ItemRequest> fetchItems(List<ItemRequest> itemRequests) {
+        if (!itemRequests.isEmpty()) {
+            itemRequestRepository.findAllWithItemsByIdIn(itemRequests.stream()
+                    .map(ItemRequest::getId)
+                    .collect(Collectors.toList()));
+        }
+        return itemRequests;
+    }
+
     private ItemRequest getItemRequest(Long id) {
-        return itemRequestRepository.findById(id)
+        return itemRequestRepository.findActiveById(id)
                 .orElseThrow(() -> new NotFoundException("запрос не найден id:" + id));
     }
 
+    private void checkUser(Long id) {
+        if (!userIdRegistry.exists(id)) {
+            throw new NotFoundException("пользователь не найден id:" + id);
+        }
+    }
+
     private User getUser(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("пользователь не найден id:" + id));
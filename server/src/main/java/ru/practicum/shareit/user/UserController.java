@@ -1,9 +1,23 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.dto.UserBatchResultDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -14,18 +28,43 @@ import java.util.stream.Collectors;
 public class UserController {
 
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public List<UserDto> getAll() {
-        return userService.getAll()
+    public ResponseEntity<List<UserDto>> getAll(@RequestParam(defaultValue = "20") Integer size,
+                                                @RequestParam(required = false) String cursor) {
+        List<UserDto> users = userService.getAll(cursor != null ? PageCursor.decode(cursor) : null, size)
                 .stream()
                 .map(UserMapper::toUserDto)
                 .collect(Collectors.toList());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!users.isEmpty() && users.size() == size) {
+            response.header(PageCursor.NEXT_CURSOR_HEADER, PageCursor.of(null, users.get(users.size() - 1).getId()).encode());
+        }
+        return response.body(users);
+    }
+
+    @GetMapping("/export")
+    public void export(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        SequenceWriter writer = objectMapper.writerFor(UserDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .writeValuesAsArray(response.getOutputStream());
+        userService.export(user -> {
+            try {
+                writer.write(user);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.close();
     }
 
     @GetMapping("/{userId}")
-    public UserDto get(@PathVariable Long userId) {
-        return UserMapper.toUserDto(userService.get(userId));
+    public ResponseEntity<UserDto> get(@PathVariable Long userId) {
+        UserDto user = UserMapper.toUserDto(userService.get(userId));
+        return ResponseEntity.ok().eTag(EntityTags.of(user.getVersion(), user)).body(user);
     }
 
     @PostMapping
@@ -33,10 +72,20 @@ public class UserController {
         return UserMapper.toUserDto(userService.add(UserMapper.toUser(userDto)));
     }
 
+    @PostMapping("/batch")
+    public List<UserBatchResultDto> addAll(@RequestBody List<UserDto> userDtos) {
+        return userService.addAll(userDtos.stream()
+                .map(UserMapper::toUser)
+                .collect(Collectors.toList()));
+    }
+
     @PatchMapping("/{userId}")
-    public UserDto update(@PathVariable Long userId, @RequestBody UserDto userDto) {
+    public ResponseEntity<UserDto> update(@PathVariable Long userId,
+                                          @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                          @RequestBody UserDto userDto) {
         userDto.setId(userId);
-        return UserMapper.toUserDto(userService.update(userId, UserMapper.toUser(userDto)));
+        UserDto user = UserMapper.toUserDto(userService.update(userId, UserMapper.toUser(userDto), ifMatch));
+        return ResponseEntity.ok().eTag(EntityTags.of(user.getVersion(), user)).body(user);
     }
 
     @DeleteMapping("/{userId}")
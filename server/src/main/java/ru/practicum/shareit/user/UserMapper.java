@@ -2,10 +2,20 @@ package ru.practicum.shareit.user;
 
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserShort;
 
 public class UserMapper {
 
     public static UserDto toUserDto(User user) {
+        return UserDto.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .version(user.getVersion())
+                .build();
+    }
+
+    public static UserDto toUserDto(UserShort user) {
         return UserDto.builder()
                 .id(user.getId())
                 .name(user.getName())
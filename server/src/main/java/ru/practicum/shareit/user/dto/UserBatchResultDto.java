@@ -0,0 +1,12 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class UserBatchResultDto {
+    private Integer index;
+    private UserDto user;
+    private String error;
+}
@@ -1,12 +1,17 @@
 package ru.practicum.shareit.user.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Where;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Data
 @Builder
@@ -14,6 +19,8 @@ import javax.persistence.*;
 @NoArgsConstructor
 @Entity
 @Table(name = "users", schema = "public")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@Where(clause = "deleted_at IS NULL")
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -21,4 +28,10 @@ public class User {
     private String name;
     @Column(name = "email", unique = true, nullable = false)
     private String email;
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+    @JsonIgnore
+    @Version
+    private Long version;
 }
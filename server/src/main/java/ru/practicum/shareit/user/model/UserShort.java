@@ -0,0 +1,9 @@
+package ru.practicum.shareit.user.model;
+
+public interface UserShort {
+    Long getId();
+
+    String getName();
+
+    String getEmail();
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.datasource.ReplicaRoutingDataSource;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.BitSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+@RequiredArgsConstructor
+public class UserIdRegistry {
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final BitSet ids = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void warmUp() {
+        lock.writeLock().lock();
+        try {
+            ids.clear();
+            ReplicaRoutingDataSource.onPrimary(userRepository::findAllIds).stream()
+                    .filter(UserIdRegistry::isIndexed)
+                    .forEach(id -> ids.set(id.intValue()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean exists(Long id) {
+        if (id == null || id <= 0) {
+            return false;
+        }
+        if (isIndexed(id) && !contains(id)) {
+            return false;
+        }
+        return userRepository.existsById(id) || existsOnPrimary(id);
+    }
+
+    public void add(Long id) {
+        TransactionCallbacks.afterCommit(() -> set(id));
+    }
+
+    public void remove(Long id) {
+        TransactionCallbacks.afterCommit(() -> clear(id));
+    }
+
+    private boolean existsOnPrimary(Long id) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transaction.setReadOnly(true);
+        return Boolean.TRUE.equals(ReplicaRoutingDataSource.onPrimary(
+                () -> transaction.execute(status -> userRepository.existsById(id))));
+    }
+
+    private void clear(Long id) {
+        if (!isIndexed(id)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ids.clear(id.intValue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean contains(Long id) {
+        lock.readLock().lock();
+        try {
+            return ids.get(id.intValue());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void set(Long id) {
+        if (!isIndexed(id)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ids.set(id.intValue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean isIndexed(Long id) {
+        return id != null && id > 0 && id < Integer.MAX_VALUE;
+    }
+}
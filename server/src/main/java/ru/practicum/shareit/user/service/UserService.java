@@ -1,16 +1,24 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.dto.UserBatchResultDto;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
 
-    List<User> getAll();
+    List<User> getAll(PageCursor cursor, Integer size);
+
+    void export(Consumer<UserDto> consumer);
 
     User add(User user);
 
-    User update(Long userId, User user);
+    List<UserBatchResultDto> addAll(List<User> users);
+
+    User update(Long userId, User user, String ifMatch);
 
     User get(Long userId);
 
@@ -1,51 +1,141 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.AllArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.EmailBusyException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemAvailabilityIndex;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.purge.model.PurgeJob;
+import ru.practicum.shareit.purge.model.PurgeTarget;
+import ru.practicum.shareit.purge.repository.PurgeJobRepository;
+import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.dto.UserBatchResultDto;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserShort;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final String EMAIL_CONSTRAINT = "uq_user_email";
     private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final PurgeJobRepository purgeJobRepository;
+    private final UserIdRegistry userIdRegistry;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
+    private final PlatformTransactionManager transactionManager;
 
     @Override
-    public List<User> getAll() {
-        return userRepository.findAll();
+    public List<User> getAll(PageCursor cursor, Integer size) {
+        Long afterId = cursor != null ? cursor.getId() : 0L;
+        return userRepository.findAllByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size));
+    }
+
+    @Override
+    public void export(Consumer<UserDto> consumer) {
+        try (Stream<UserShort> users = userRepository.streamAll()) {
+            users.map(UserMapper::toUserDto)
+                    .forEach(consumer);
+        }
     }
 
     @Override
     @Transactional
     public User add(User user) {
         try {
-            return userRepository.save(user);
+            User savedUser = userRepository.save(user);
+            userIdRegistry.add(savedUser.getId());
+            return savedUser;
         } catch (DataIntegrityViolationException exception) {
-            throw new EmailBusyException(user.getEmail() + " занять другим пользователем");
+            throw toEmailBusy(exception, user.getEmail());
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<UserBatchResultDto> addAll(List<User> users) {
+        if (users == null || users.isEmpty()) {
+            throw new BadRequestException("не переданы пользователи");
+        }
+        if (users.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("за раз можно добавить не больше " + MAX_BATCH_SIZE + " пользователей");
         }
+        Set<String> takenEmails = new HashSet<>(userRepository.findExistingEmails(users.stream()
+                .map(User::getEmail)
+                .filter(Objects::nonNull)
+                .map(UserServiceImpl::normalizeEmail)
+                .collect(Collectors.toSet())));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        List<UserBatchResultDto> results = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            UserBatchResultDto.UserBatchResultDtoBuilder result = UserBatchResultDto.builder()
+                    .index(i);
+            if (user.getEmail() == null || user.getName() == null) {
+                result.error("не указаны имя или email");
+            } else if (!takenEmails.add(normalizeEmail(user.getEmail()))) {
+                result.error(user.getEmail() + " занять другим пользователем");
+            } else {
+                try {
+                    User savedUser = transaction.execute(status -> add(user));
+                    result.user(UserMapper.toUserDto(savedUser));
+                } catch (EmailBusyException exception) {
+                    result.error(exception.getMessage());
+                } catch (DataIntegrityViolationException exception) {
+                    result.error("не удалось сохранить пользователя");
+                }
+            }
+            results.add(result.build());
+        }
+        return results;
     }
 
     @Override
     @Transactional
-    public User update(Long userId, User user) {
+    public User update(Long userId, User user, String ifMatch) {
         User currentUser = getById(userId);
+        if (ifMatch != null && !EntityTags.matchesVersion(ifMatch, currentUser.getVersion())) {
+            throw new PreconditionFailedException("пользователь изменён другим запросом id:" + userId);
+        }
         if (user.getName() != null && !user.getName().isBlank()) {
             currentUser.setName(user.getName());
         }
         if (user.getEmail() != null && !user.getEmail().isBlank()) {
-            if (userRepository.existsByEmailIgnoringUser(user.getEmail(), userId)) {
-                throw new EmailBusyException(user.getEmail() + " занять другим пользователем");
-            }
             currentUser.setEmail(user.getEmail());
         }
-        return userRepository.save(currentUser);
+        try {
+            return userRepository.saveAndFlush(currentUser);
+        } catch (DataIntegrityViolationException exception) {
+            throw toEmailBusy(exception, user.getEmail());
+        }
     }
 
     @Override
@@ -56,7 +146,32 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public void delete(Long userId) {
-        userRepository.deleteById(userId);
+        LocalDateTime now = LocalDateTime.now();
+        if (userRepository.softDeleteById(userId, now) == 0) {
+            throw new NotFoundException("пользователь не найден id:" + userId);
+        }
+        List<Long> affectedItemIds = itemRepository.findIdsOwnedOrBookedBy(userId, now);
+        itemRepository.softDeleteByOwnerId(userId, now);
+        purgeJobRepository.save(PurgeJob.of(PurgeTarget.USER, userId, now));
+        userIdRegistry.remove(userId);
+        itemAvailabilityIndex.reloadAfterCommit(affectedItemIds);
+    }
+
+    private static RuntimeException toEmailBusy(DataIntegrityViolationException exception, String email) {
+        if (exception.getCause() instanceof ConstraintViolationException) {
+            ConstraintViolationException violation = (ConstraintViolationException) exception.getCause();
+            String constraint = violation.getConstraintName() != null || violation.getSQLException() == null
+                    ? violation.getConstraintName()
+                    : violation.getSQLException().getMessage();
+            if (constraint != null && constraint.toLowerCase(Locale.ROOT).contains(EMAIL_CONSTRAINT)) {
+                return new EmailBusyException(email + " занять другим пользователем");
+            }
+        }
+        return exception;
+    }
+
+    private static String normalizeEmail(String email) {
+        return email.toLowerCase(Locale.ROOT);
     }
 
     private User getById(Long id) {
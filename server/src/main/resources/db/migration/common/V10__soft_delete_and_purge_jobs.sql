@@ -0,0 +1,16 @@
+ALTER TABLE users ADD COLUMN deleted_at TIMESTAMP WITHOUT TIME ZONE;
+ALTER TABLE items ADD COLUMN deleted_at TIMESTAMP WITHOUT TIME ZONE;
+
+CREATE INDEX idx_comments_author ON comments (author_id);
+CREATE INDEX idx_bookings_archive_item ON bookings_archive (item_id);
+
+CREATE TABLE purge_jobs (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  target VARCHAR(10) NOT NULL,
+  target_id BIGINT NOT NULL,
+  step INTEGER NOT NULL,
+  purged_rows BIGINT NOT NULL,
+  created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  updated TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  CONSTRAINT pk_purge_job PRIMARY KEY (id)
+);
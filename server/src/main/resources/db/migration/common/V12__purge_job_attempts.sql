@@ -0,0 +1,6 @@
+ALTER TABLE purge_jobs ADD COLUMN attempts INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE purge_jobs ADD COLUMN next_attempt_at TIMESTAMP WITHOUT TIME ZONE;
+UPDATE purge_jobs SET next_attempt_at = created;
+ALTER TABLE purge_jobs ALTER COLUMN next_attempt_at SET NOT NULL;
+
+CREATE INDEX idx_purge_jobs_next_attempt ON purge_jobs (next_attempt_at, id);
@@ -0,0 +1,7 @@
+CREATE INDEX idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+CREATE INDEX idx_bookings_item_booker_end ON bookings (item_id, booker_id, end_date);
+CREATE INDEX idx_items_owner ON items (owner_id, id);
+CREATE INDEX idx_items_request ON items (request_id);
+CREATE INDEX idx_comments_item ON comments (item_id);
+CREATE INDEX idx_requests_requester_created ON requests (requester_id, created DESC);
@@ -0,0 +1,12 @@
+CREATE TABLE booking_transitions (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+  booking_id BIGINT NOT NULL,
+  from_status VARCHAR(10) NOT NULL,
+  to_status VARCHAR(10) NOT NULL,
+  changed_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  CONSTRAINT pk_booking_transition PRIMARY KEY (id),
+  CONSTRAINT fk_booking_transitions_to_bookings FOREIGN KEY (booking_id) REFERENCES bookings(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_booking_transitions_booking ON booking_transitions (booking_id);
+CREATE INDEX idx_bookings_status_start ON bookings (status, start_date);
@@ -0,0 +1,13 @@
+CREATE TABLE bookings_archive (
+  id BIGINT NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  item_id BIGINT NOT NULL,
+  booker_id BIGINT NOT NULL,
+  status VARCHAR(10) NOT NULL,
+  CONSTRAINT pk_booking_archive PRIMARY KEY (id, start_date),
+  CONSTRAINT fk_bookings_archive_to_items FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE,
+  CONSTRAINT fk_bookings_archive_to_users FOREIGN KEY (booker_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_bookings_archive_booker_start ON bookings_archive (booker_id, start_date DESC, id DESC);
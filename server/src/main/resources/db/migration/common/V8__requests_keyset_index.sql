@@ -0,0 +1,2 @@
+DROP INDEX idx_requests_requester_created;
+CREATE INDEX idx_requests_requester_created_id ON requests (requester_id, created DESC, id DESC);
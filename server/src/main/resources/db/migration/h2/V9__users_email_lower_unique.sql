@@ -0,0 +1,5 @@
+ALTER TABLE users ADD COLUMN email_lower VARCHAR(255) GENERATED ALWAYS AS (LOWER(email));
+
+ALTER TABLE users ADD CONSTRAINT uq_user_email_lower UNIQUE (email_lower);
+
+ALTER TABLE users DROP CONSTRAINT uq_user_email;
@@ -0,0 +1,24 @@
+CREATE OR REPLACE FUNCTION create_booking_partition(month_start DATE) RETURNS BOOLEAN AS $$
+DECLARE
+  lower_bound TIMESTAMP := date_trunc('month', month_start);
+  upper_bound TIMESTAMP := date_trunc('month', month_start) + INTERVAL '1 month';
+  partition_name TEXT := 'bookings_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+  IF to_regclass(partition_name) IS NOT NULL THEN
+    RETURN FALSE;
+  END IF;
+  EXECUTE format('CREATE TABLE %I (LIKE bookings INCLUDING DEFAULTS)', partition_name);
+  EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I CHECK (start_date >= %L AND start_date < %L)',
+                 partition_name, 'ck_' || partition_name || '_range', lower_bound, upper_bound);
+  EXECUTE format('WITH moved AS (DELETE FROM bookings_default WHERE start_date >= %L AND start_date < %L '
+                 || 'RETURNING *) INSERT INTO %I SELECT * FROM moved',
+                 lower_bound, upper_bound, partition_name);
+  EXECUTE format('ALTER TABLE bookings ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                 partition_name, lower_bound, upper_bound);
+  EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist '
+                 || '(item_id WITH =, tsrange(start_date, end_date, ''[)'') WITH &&) '
+                 || 'WHERE (status IN (''WAITING'', ''APPROVED''))',
+                 partition_name, 'ex_' || partition_name || '_item_period');
+  RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,4 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_items_name_trgm ON items USING gin (LOWER(name) gin_trgm_ops);
+CREATE INDEX idx_items_description_trgm ON items USING gin (LOWER(description) gin_trgm_ops);
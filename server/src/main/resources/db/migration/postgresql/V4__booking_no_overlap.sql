@@ -0,0 +1,18 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+UPDATE bookings b
+SET status = 'REJECTED'
+WHERE b.status IN ('WAITING', 'APPROVED')
+  AND EXISTS (SELECT 1
+              FROM bookings o
+              WHERE o.item_id = b.item_id
+                AND o.id <> b.id
+                AND o.status IN ('WAITING', 'APPROVED')
+                AND tsrange(o.start_date, o.end_date, '[)') && tsrange(b.start_date, b.end_date, '[)')
+                AND (o.status = 'APPROVED' AND b.status = 'WAITING'
+                  OR o.status = b.status AND o.id < b.id));
+
+ALTER TABLE bookings
+  ADD CONSTRAINT ex_bookings_item_period
+  EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date, '[)') WITH &&)
+  WHERE (status IN ('WAITING', 'APPROVED'));
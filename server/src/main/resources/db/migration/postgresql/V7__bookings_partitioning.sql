@@ -0,0 +1,117 @@
+DROP TABLE bookings_archive;
+
+ALTER TABLE bookings RENAME TO bookings_legacy;
+ALTER TABLE bookings_legacy RENAME CONSTRAINT pk_booking TO pk_booking_legacy;
+DROP INDEX idx_bookings_booker_start;
+DROP INDEX idx_bookings_item_status_start;
+DROP INDEX idx_bookings_item_booker_end;
+DROP INDEX idx_bookings_status_start;
+
+CREATE SEQUENCE booking_id_seq;
+SELECT setval('booking_id_seq', COALESCE((SELECT MAX(id) FROM bookings_legacy), 0) + 1, false);
+
+CREATE TABLE bookings (
+  id BIGINT NOT NULL DEFAULT nextval('booking_id_seq'),
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  item_id BIGINT NOT NULL,
+  booker_id BIGINT NOT NULL,
+  status VARCHAR(10) NOT NULL,
+  CONSTRAINT pk_booking PRIMARY KEY (id, start_date),
+  CONSTRAINT fk_bookings_to_items FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE,
+  CONSTRAINT fk_bookings_to_users FOREIGN KEY (booker_id) REFERENCES users(id) ON DELETE CASCADE
+) PARTITION BY RANGE (start_date);
+
+ALTER SEQUENCE booking_id_seq OWNED BY bookings.id;
+
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+ALTER TABLE bookings_default
+  ADD CONSTRAINT ex_bookings_default_item_period
+  EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date, '[)') WITH &&)
+  WHERE (status IN ('WAITING', 'APPROVED'));
+
+CREATE INDEX idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+CREATE INDEX idx_bookings_item_booker_end ON bookings (item_id, booker_id, end_date);
+CREATE INDEX idx_bookings_status_start ON bookings (status, start_date);
+
+CREATE TABLE bookings_archive (
+  id BIGINT NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  item_id BIGINT NOT NULL,
+  booker_id BIGINT NOT NULL,
+  status VARCHAR(10) NOT NULL,
+  CONSTRAINT pk_booking_archive PRIMARY KEY (id, start_date),
+  CONSTRAINT fk_bookings_archive_to_items FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE,
+  CONSTRAINT fk_bookings_archive_to_users FOREIGN KEY (booker_id) REFERENCES users(id) ON DELETE CASCADE
+) PARTITION BY RANGE (start_date);
+
+CREATE INDEX idx_bookings_archive_booker_start ON bookings_archive (booker_id, start_date DESC, id DESC);
+
+CREATE FUNCTION create_booking_partition(month_start DATE) RETURNS BOOLEAN AS $$
+DECLARE
+  lower_bound TIMESTAMP := date_trunc('month', month_start);
+  upper_bound TIMESTAMP := date_trunc('month', month_start) + INTERVAL '1 month';
+  partition_name TEXT := 'bookings_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+  IF to_regclass(partition_name) IS NOT NULL THEN
+    RETURN FALSE;
+  END IF;
+  EXECUTE format('CREATE TABLE %I (LIKE bookings INCLUDING DEFAULTS)', partition_name);
+  EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I CHECK (start_date >= %L AND start_date < %L)',
+                 partition_name, 'ck_' || partition_name || '_range', lower_bound, upper_bound);
+  EXECUTE format('INSERT INTO %I SELECT * FROM bookings_default WHERE start_date >= %L AND start_date < %L',
+                 partition_name, lower_bound, upper_bound);
+  EXECUTE format('DELETE FROM bookings_default WHERE start_date >= %L AND start_date < %L',
+                 lower_bound, upper_bound);
+  EXECUTE format('ALTER TABLE bookings ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                 partition_name, lower_bound, upper_bound);
+  EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist '
+                 || '(item_id WITH =, tsrange(start_date, end_date, ''[)'') WITH &&) '
+                 || 'WHERE (status IN (''WAITING'', ''APPROVED''))',
+                 partition_name, 'ex_' || partition_name || '_item_period');
+  RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION archive_booking_partitions(horizon TIMESTAMP) RETURNS INTEGER AS $$
+DECLARE
+  booking_partition RECORD;
+  archived INTEGER := 0;
+BEGIN
+  FOR booking_partition IN
+    SELECT c.relname AS name,
+           to_date(substring(c.relname FROM 10), 'YYYY_MM')::TIMESTAMP AS lower_bound
+    FROM pg_inherits i
+    JOIN pg_class c ON c.oid = i.inhrelid
+    WHERE i.inhparent = 'bookings'::regclass
+      AND c.relname ~ '^bookings_[0-9]{4}_[0-9]{2}$'
+    ORDER BY c.relname
+  LOOP
+    EXIT WHEN booking_partition.lower_bound + INTERVAL '1 month' > horizon;
+    EXECUTE format('ALTER TABLE bookings DETACH PARTITION %I', booking_partition.name);
+    EXECUTE format('ALTER TABLE bookings_archive ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   booking_partition.name, booking_partition.lower_bound,
+                   booking_partition.lower_bound + INTERVAL '1 month');
+    archived := archived + 1;
+  END LOOP;
+  RETURN archived;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+  month_start DATE := date_trunc('month', COALESCE((SELECT MIN(start_date) FROM bookings_legacy), now()));
+BEGIN
+  WHILE month_start < date_trunc('month', now()) + INTERVAL '4 months' LOOP
+    PERFORM create_booking_partition(month_start);
+    month_start := month_start + INTERVAL '1 month';
+  END LOOP;
+END $$;
+
+INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status)
+SELECT id, start_date, end_date, item_id, booker_id, status
+FROM bookings_legacy;
+
+DROP TABLE bookings_legacy CASCADE;
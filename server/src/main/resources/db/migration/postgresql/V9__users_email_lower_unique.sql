@@ -0,0 +1,3 @@
+CREATE UNIQUE INDEX uq_user_email_lower ON users (LOWER(email));
+
+ALTER TABLE users DROP CONSTRAINT uq_user_email;
@@ -9,19 +9,25 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchUpdateDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
 
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -72,6 +78,56 @@ public class BookingControllerTest {
         verifyNoMoreInteractions(bookingService);
     }
 
+    @Test
+    @SneakyThrows
+    public void testGetArchiveByUserId() {
+        when(bookingService.getArchiveByUserId(anyLong(), anyInt(), anyInt()))
+                .thenReturn(List.of(booking));
+        mockMvc.perform(get("/bookings/archive")
+                        .header("X-Sharer-User-Id", "2")
+                        .param("from", "0")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(booking.getId()));
+        verify(bookingService, only())
+                .getArchiveByUserId(2L, 0, 10);
+        verifyNoMoreInteractions(bookingService);
+    }
+
+    @Test
+    @SneakyThrows
+    public void testGetSummaryByUserId() {
+        when(bookingService.getSummaryByUserId(anyLong()))
+                .thenReturn(Map.of(BookingState.ALL, 3L, BookingState.FUTURE, 2L, BookingState.WAITING, 1L));
+        mockMvc.perform(get("/bookings/summary")
+                        .header("X-Sharer-User-Id", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.all").value(3))
+                .andExpect(jsonPath("$.future").value(2))
+                .andExpect(jsonPath("$.waiting").value(1))
+                .andExpect(jsonPath("$.rejected").value(0));
+        verify(bookingService, only())
+                .getSummaryByUserId(2L);
+        verifyNoMoreInteractions(bookingService);
+    }
+
+    @Test
+    @SneakyThrows
+    public void testGetSummaryByItemOwner() {
+        when(bookingService.getSummaryByItemOwner(anyLong()))
+                .thenReturn(Map.of(BookingState.ALL, 1L, BookingState.CURRENT, 1L));
+        mockMvc.perform(get("/bookings/owner/summary")
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.all").value(1))
+                .andExpect(jsonPath("$.current").value(1))
+                .andExpect(jsonPath("$.past").value(0));
+        verify(bookingService, only())
+                .getSummaryByItemOwner(1L);
+        verifyNoMoreInteractions(bookingService);
+    }
+
     @Test
     @SneakyThrows
     public void testGetAllByUserId() {
@@ -80,7 +136,7 @@ public class BookingControllerTest {
         mockMvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", "2")
                         .param("state", "ALL")
-                        .param("from", "0")
+                        .param("from", "20")
                         .param("size", "20"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(1))
@@ -92,6 +148,36 @@ public class BookingControllerTest {
 
     }
 
+    @Test
+    @SneakyThrows
+    public void testGetAllByUserIdWithCursor() {
+        when(bookingService.getAllByUserId(anyString(), anyLong(), any(PageCursor.class), anyInt()))
+                .thenReturn(List.of(booking));
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", "2")
+                        .param("state", "ALL")
+                        .param("size", "1")
+                        .param("cursor", PageCursor.of(booking.getStart().plusDays(1), 10L).encode()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER,
+                        PageCursor.of(booking.getStart(), booking.getId()).encode()))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(booking.getId()));
+        verify(bookingService, only())
+                .getAllByUserId(anyString(), anyLong(), any(PageCursor.class), anyInt());
+        verifyNoMoreInteractions(bookingService);
+    }
+
+    @Test
+    @SneakyThrows
+    public void testGetAllByUserIdWithIncorrectCursor() {
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", "2")
+                        .param("cursor", "???"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(bookingService);
+    }
+
     @Test
     @SneakyThrows
     public void testAdd() {
@@ -128,6 +214,34 @@ public class BookingControllerTest {
 
     }
 
+    @Test
+    @SneakyThrows
+    public void testUpdateAll() {
+        when(bookingService.updateAll(List.of(1L, 2L), 1L, true))
+                .thenReturn(List.of(BookingBatchResultDto.builder()
+                                .bookingId(1L)
+                                .status(BookingStatus.APPROVED)
+                                .build(),
+                        BookingBatchResultDto.builder()
+                                .bookingId(2L)
+                                .error("запрос не найден:2")
+                                .build()));
+        mockMvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", "1")
+                        .content(objectMapper.writeValueAsString(BookingBatchUpdateDto.builder()
+                                .bookingIds(List.of(1L, 2L))
+                                .approved(true)
+                                .build()))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].status").value("APPROVED"))
+                .andExpect(jsonPath("$[1].error").value("запрос не найден:2"));
+        verify(bookingService, only())
+                .updateAll(List.of(1L, 2L), 1L, true);
+        verifyNoMoreInteractions(bookingService);
+    }
+
     @Test
     @SneakyThrows
     public void testGetAllByItemOwner() {
@@ -136,7 +250,7 @@ public class BookingControllerTest {
         mockMvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", "2")
                         .param("state", "ALL")
-                        .param("from", "0")
+                        .param("from", "20")
                         .param("size", "20"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(1))
@@ -148,4 +262,20 @@ public class BookingControllerTest {
 
     }
 
+    @Test
+    @SneakyThrows
+    public void testGetAllByItemOwnerFirstPage() {
+        when(bookingService.getAllByItemOwner(anyString(), anyLong(), (PageCursor) isNull(), anyInt()))
+                .thenReturn(List.of(booking));
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", "2")
+                        .param("state", "ALL"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$.length()").value(1));
+        verify(bookingService, only())
+                .getAllByItemOwner(anyString(), anyLong(), (PageCursor) isNull(), anyInt());
+        verifyNoMoreInteractions(bookingService);
+    }
+
 }
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingTransitionRepository;
+import ru.practicum.shareit.booking.scheduler.BookingExpiryScheduler;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingExpirySchedulerTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private BookingTransitionRepository bookingTransitionRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @InjectMocks
+    private BookingExpiryScheduler bookingExpiryScheduler;
+
+    @Test
+    public void testTickRejectsStartedWaitingBookings() {
+        LocalDateTime start = LocalDateTime.now().minusMinutes(1);
+        Booking waiting = booking(1L, start, BookingStatus.WAITING);
+        Booking approved = booking(2L, start, BookingStatus.APPROVED);
+        when(bookingRepository.findAllByIdInForUpdate(List.of(1L, 2L)))
+                .thenReturn(List.of(waiting, approved));
+        bookingExpiryScheduler.schedule(1L, start);
+        bookingExpiryScheduler.schedule(2L, start);
+
+        bookingExpiryScheduler.tick();
+
+        verify(bookingRepository).updateStatusByIdIn(List.of(1L), BookingStatus.REJECTED);
+        verify(bookingTransitionRepository).saveAll(argThat(transitions -> transitions.iterator().next().getBookingId() == 1L));
+    }
+
+    @Test
+    public void testTickSkipsFutureBookings() {
+        bookingExpiryScheduler.schedule(1L, LocalDateTime.now().plusDays(1));
+
+        bookingExpiryScheduler.tick();
+
+        verify(bookingRepository, never()).findAllByIdInForUpdate(anyList());
+        verify(bookingRepository, never()).updateStatusByIdIn(any(), any());
+    }
+
+    @Test
+    public void testTickBacksOffAfterFailedBatch() {
+        LocalDateTime start = LocalDateTime.now().minusMinutes(1);
+        when(bookingRepository.findAllByIdInForUpdate(List.of(1L)))
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+        bookingExpiryScheduler.schedule(1L, start);
+
+        bookingExpiryScheduler.tick();
+        bookingExpiryScheduler.tick();
+
+        verify(bookingRepository, times(1)).findAllByIdInForUpdate(List.of(1L));
+        verify(bookingRepository, never()).updateStatusByIdIn(any(), any());
+    }
+
+    private static Booking booking(Long id, LocalDateTime start, BookingStatus status) {
+        return Booking.builder()
+                .id(id)
+                .start(start)
+                .end(start.plusHours(2))
+                .status(status)
+                .item(Item.builder()
+                        .id(id)
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.scheduler.BookingPartitionMaintenance;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingPartitionMaintenanceTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    private BookingPartitionMaintenance maintenance;
+
+    @BeforeEach
+    public void setUp() {
+        maintenance = new BookingPartitionMaintenance(jdbcTemplate, 3, 24);
+    }
+
+    @Test
+    public void testCreatePartitions() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        when(jdbcTemplate.queryForObject(eq("SELECT create_booking_partition(?)"), eq(Boolean.class), any(LocalDate.class)))
+                .thenReturn(false);
+        when(jdbcTemplate.queryForObject("SELECT create_booking_partition(?)", Boolean.class, month.plusMonths(3)))
+                .thenReturn(true);
+        assertEquals(maintenance.createPartitions(), 1);
+        verify(jdbcTemplate, times(4)).queryForObject(eq("SELECT create_booking_partition(?)"), eq(Boolean.class), any(LocalDate.class));
+    }
+
+    @Test
+    public void testArchivePartitions() {
+        LocalDateTime horizon = LocalDate.now().withDayOfMonth(1).minusMonths(24).atStartOfDay();
+        when(jdbcTemplate.queryForObject("SELECT archive_booking_partitions(?)", Integer.class, horizon))
+                .thenReturn(2);
+        assertEquals(maintenance.archivePartitions(), 2);
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.pagination.PageCursor;
+
+import javax.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.booking.CapturingStatementInspector")
+public class BookingQueryPlanTest {
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private BookingRepository bookingRepository;
+    private boolean postgres;
+
+    @BeforeEach
+    public void setup() {
+        EntityManager em = entityManager.getEntityManager();
+        postgres = em.unwrap(Session.class).doReturningWork(connection -> connection.getMetaData()
+                .getDatabaseProductName()
+                .equals("PostgreSQL"));
+        if (postgres) {
+            em.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+            em.createNativeQuery("SET LOCAL plan_cache_mode = force_generic_plan").executeUpdate();
+        }
+    }
+
+    static Stream<Arguments> queries() {
+        List<Arguments> queries = new ArrayList<>();
+        for (BookingState state : List.of(BookingState.ALL, BookingState.CURRENT, BookingState.PAST,
+                BookingState.FUTURE, BookingState.WAITING, BookingState.REJECTED)) {
+            queries.add(query("booker " + state, repository ->
+                    repository.findAllByBookerIdAndState(1L, state, NOW, 0, 10)));
+            queries.add(query("owner " + state, repository ->
+                    repository.findAllByItemOwnerIdAndState(1L, state, NOW, 0, 10)));
+        }
+        queries.add(query("booker cursor", repository ->
+                repository.findAllByBookerIdAndState(1L, BookingState.ALL, NOW, PageCursor.of(NOW, 10L), 10)));
+        queries.add(query("owner cursor", repository ->
+                repository.findAllByItemOwnerIdAndState(1L, BookingState.ALL, NOW, PageCursor.of(NOW, 10L), 10)));
+        queries.add(query("last booking", repository ->
+                repository.findFirstByItemIdAndStartBeforeAndStatusAndBookerDeletedAtIsNullOrderByStartDesc(1L, NOW, BookingStatus.APPROVED)));
+        queries.add(query("next booking", repository ->
+                repository.findFirstByItemIdAndStartAfterAndStatusAndBookerDeletedAtIsNullOrderByStartAsc(1L, NOW, BookingStatus.APPROVED)));
+        queries.add(query("finished booking", repository ->
+                repository.findFirstByItemIdAndBookerIdAndEndBeforeAndStatus(1L, 1L, NOW, BookingStatus.APPROVED)));
+        queries.add(query("last bookings", repository ->
+                repository.findLastByItemIds(List.of(1L, 2L), NOW, BookingStatus.APPROVED.name())));
+        queries.add(query("next bookings", repository ->
+                repository.findNextByItemIds(List.of(1L, 2L), NOW, BookingStatus.APPROVED.name())));
+        queries.add(query("active bookings", repository -> repository.findActiveByItemId(1L, NOW)));
+        queries.add(query("overlapping booking", repository ->
+                repository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(1L,
+                        Set.of(BookingStatus.WAITING, BookingStatus.APPROVED), NOW.plusDays(1), NOW)));
+        return queries.stream();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    public void testQueryUsesIndex(String name, Consumer<BookingRepository> query) {
+        CapturingStatementInspector.clear();
+        query.accept(bookingRepository);
+        List<String> statements = CapturingStatementInspector.statements().stream()
+                .filter(sql -> sql.toLowerCase().contains("bookings"))
+                .collect(Collectors.toList());
+        assertFalse(statements.isEmpty(), name);
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertFalse(plan.contains(postgres ? "Seq Scan" : ".tableScan"), sql + "\n" + plan);
+        }
+    }
+
+    private static Arguments query(String name, Consumer<BookingRepository> query) {
+        return Arguments.of(name, query);
+    }
+
+    private String explain(String sql) {
+        return entityManager.getEntityManager().unwrap(Session.class).doReturningWork(connection -> postgres
+                ? explainGeneric(connection, sql)
+                : explainPrepared(connection, sql));
+    }
+
+    private static String explainPrepared(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            return plan(statement.executeQuery());
+        }
+    }
+
+    private static String explainGeneric(Connection connection, String sql) throws SQLException {
+        StringBuilder numbered = new StringBuilder();
+        int parameters = 0;
+        for (char symbol : sql.toCharArray()) {
+            if (symbol == '?') {
+                numbered.append('$').append(++parameters);
+            } else {
+                numbered.append(symbol);
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PREPARE plan_check AS " + numbered);
+            String arguments = parameters == 0 ? ""
+                    : "(" + String.join(", ", Collections.nCopies(parameters, "NULL")) + ")";
+            try {
+                return plan(statement.executeQuery("EXPLAIN EXECUTE plan_check" + arguments));
+            } finally {
+                statement.execute("DEALLOCATE plan_check");
+            }
+        }
+    }
+
+    private static String plan(ResultSet resultSet) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        while (resultSet.next()) {
+            rows.add(resultSet.getString(1));
+        }
+        return String.join("\n", rows);
+    }
+}
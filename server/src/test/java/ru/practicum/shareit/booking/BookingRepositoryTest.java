@@ -0,0 +1,406 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingShort;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+public class BookingRepositoryTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    public void testFindLastAndNextByItemIds() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        User owner = entityManager.persist(User.builder()
+                .email("simple@id.ru")
+                .name("Dave")
+                .build());
+        User booker = entityManager.persist(User.builder()
+                .email("mail@id.ru")
+                .name("Danil")
+                .build());
+        Item item = entityManager.persist(Item.builder()
+                .name("Ручка Erich Krause")
+                .description("Выиграл в \"СВОЯ ИГРА\" инкрустирована бриллиантами.")
+                .available(true)
+                .owner(owner)
+                .build());
+        Item item2 = entityManager.persist(Item.builder()
+                .name("Лопата")
+                .description("Лопата Деда.")
+                .available(true)
+                .owner(owner)
+                .build());
+        entityManager.persist(booking(item, booker, now.minusDays(3), BookingStatus.APPROVED));
+        Booking last = entityManager.persist(booking(item, booker, now.minusDays(1), BookingStatus.APPROVED));
+        Booking next = entityManager.persist(booking(item, booker, now.plusDays(1), BookingStatus.APPROVED));
+        entityManager.persist(booking(item, booker, now.plusDays(3), BookingStatus.APPROVED));
+        entityManager.persist(booking(item2, booker, now.plusHours(1), BookingStatus.REJECTED));
+        Booking next2 = entityManager.persist(booking(item2, booker, now.plusDays(2), BookingStatus.APPROVED));
+
+        List<BookingShort> lastBookings = bookingRepository.findLastByItemIds(List.of(item.getId(), item2.getId()),
+                now, BookingStatus.APPROVED.name());
+        assertEquals(lastBookings.size(), 1);
+        assertEquals(lastBookings.get(0).getId(), last.getId());
+        assertEquals(lastBookings.get(0).getItemId(), item.getId());
+        assertEquals(lastBookings.get(0).getBookerId(), booker.getId());
+        assertEquals(lastBookings.get(0).getStart(), last.getStart());
+
+        List<BookingShort> nextBookings = bookingRepository.findNextByItemIds(List.of(item.getId(), item2.getId()),
+                now, BookingStatus.APPROVED.name());
+        assertEquals(nextBookings.size(), 2);
+        nextBookings.forEach(booking -> assertEquals(booking.getId(),
+                booking.getItemId().equals(item.getId()) ? next.getId() : next2.getId()));
+    }
+
+    @Test
+    public void testFindAllByItemOwnerIdAndStateWithCursor() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        User owner = entityManager.persist(User.builder()
+                .email("simple@id.ru")
+                .name("Dave")
+                .build());
+        User booker = entityManager.persist(User.builder()
+                .email("mail@id.ru")
+                .name("Danil")
+                .build());
+        Item item = entityManager.persist(Item.builder()
+                .name("Лопата")
+                .description("Лопата Деда.")
+                .available(true)
+                .owner(owner)
+                .build());
+        Booking first = entityManager.persist(booking(item, booker, now.plusDays(3), BookingStatus.WAITING));
+        Booking second = entityManager.persist(booking(item, booker, now.plusDays(2), BookingStatus.APPROVED));
+        Booking third = entityManager.persist(booking(item, booker, now.plusDays(2), BookingStatus.WAITING));
+        entityManager.persist(booking(item, booker, now.minusDays(2), BookingStatus.APPROVED));
+
+        List<Booking> firstPage = bookingRepository.findAllByItemOwnerIdAndState(owner.getId(), BookingState.FUTURE,
+                now, null, 2);
+        assertEquals(firstPage.size(), 2);
+        assertEquals(firstPage.get(0).getId(), first.getId());
+        assertEquals(firstPage.get(1).getId(), third.getId());
+
+        Booking last = firstPage.get(1);
+        List<Booking> secondPage = bookingRepository.findAllByItemOwnerIdAndState(owner.getId(), BookingState.FUTURE,
+                now, PageCursor.of(last.getStart(), last.getId()), 2);
+        assertEquals(secondPage.size(), 1);
+        assertEquals(secondPage.get(0).getId(), second.getId());
+
+        List<Booking> waiting = bookingRepository.findAllByBookerIdAndState(booker.getId(), BookingState.WAITING,
+                now, null, 10);
+        assertEquals(waiting.size(), 2);
+    }
+
+    @Test
+    public void testFindActiveByItemId() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        User owner = entityManager.persist(User.builder()
+                .email("simple@id.ru")
+                .name("Dave")
+                .build());
+        User booker = entityManager.persist(User.builder()
+                .email("mail@id.ru")
+                .name("Danil")
+                .build());
+        Item item = entityManager.persist(Item.builder()
+                .name("Лопата")
+                .description("Лопата Деда.")
+                .available(true)
+                .owner(owner)
+                .build());
+        Booking waiting = entityManager.persist(booking(item, booker, now.plusDays(1), BookingStatus.WAITING));
+        Booking approved = entityManager.persist(booking(item, booker, now.minusHours(1), BookingStatus.APPROVED));
+        entityManager.persist(booking(item, booker, now.plusDays(2), BookingStatus.REJECTED));
+        entityManager.persist(booking(item, booker, now.minusDays(2), BookingStatus.APPROVED));
+
+        List<BookingShort> active = bookingRepository.findActiveByItemId(item.getId(), now);
+        assertEquals(active.size(), 2);
+        assertEquals(Set.of(active.get(0).getId(), active.get(1).getId()), Set.of(waiting.getId(), approved.getId()));
+    }
+
+    @Test
+    public void testExistsOverlappingAcrossMonthBoundary() {
+        LocalDateTime monthEnd = LocalDateTime.now().plusMonths(1).withDayOfMonth(1).toLocalDate().atStartOfDay()
+                .minusHours(1);
+        User owner = entityManager.persist(User.builder()
+                .email("simple@id.ru")
+                .name("Dave")
+                .build());
+        User booker = entityManager.persist(User.builder()
+                .email("mail@id.ru")
+                .name("Danil")
+                .build());
+        Item item = entityManager.persist(Item.builder()
+                .name("Лопата")
+                .description("Лопата Деда.")
+                .available(true)
+                .owner(owner)
+                .build());
+        entityManager.persist(booking(item, booker, monthEnd, BookingStatus.WAITING));
+        entityManager.persist(booking(item, booker, monthEnd.plusHours(3), BookingStatus.REJECTED));
+        Set<BookingStatus> active = Set.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+        assertTrue(bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(item.getId(), active,
+                monthEnd.plusHours(3), monthEnd.plusMinutes(90)));
+        assertFalse(bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(item.getId(), active,
+                monthEnd.plusHours(4), monthEnd.plusHours(2)));
+    }
+
+    @Test
+    public void testFindApprovedEndingAfter() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        User owner = entityManager.persist(User.builder()
+                .email("simple@id.ru")
+                .name("Dave")
+                .build());
+        User booker = entityManager.persist(User.builder()
+                .email("mail@id.ru")
+                .name("Danil")
+                .build());
+        Item item = entityManager.persist(Item.builder()
+                .name("Лопата")
+                .description("Лопата Деда.")
+                .available(true)
+                .owner(owner)
+                .build());
+        entityManager.persist(booking(item, booker, now.plusDays(1), BookingStatus.WAITING));
+        Booking approved = entityManager.persist(booking(item, booker, now.minusHours(1), BookingStatus.APPROVED));
+        entityManager.persist(booking(item, booker, now.minusDays(2), BookingStatus.APPROVED));
+
+        List<BookingShort> bookings = bookingRepository.findApprovedEndingAfter(now);
+        assertEquals(bookings.size(), 1);
+        assertEquals(bookings.get(0).getId(), approved.getId());
+        assertEquals(bookings.get(0).getItemId(), item.getId());
+    }
+
+    @Test
+    public void testFindAllByBookerIdAndStateWithOffset() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        User owner = entityManager.persist(User.builder()
+                .email("simple@id.ru")
+                .name("Dave")
+                .build());
+        User booker = entityManager.persist(User.builder()
+                .email("mail@id.ru")
+                .name("Danil")
+                .build());
+        Item item = entityManager.persist(Item.builder()
+                .name("Лопата")
+                .description("Лопата Деда.")
+                .available(true)
+                .owner(owner)
+                .build());
+        Booking first = entityManager.persist(booking(item, booker, now.plusDays(3), BookingStatus.WAITING));
+        Booking second = entityManager.persist(booking(item, booker, now.plusDays(2), BookingStatus.APPROVED));
+        Booking third = entityManager.persist(booking(item, booker, now.plusDays(1), BookingStatus.WAITING));
+        entityManager.persist(booking(item, booker, now.minusDays(1), BookingStatus.WAITING));
+
+        List<Booking> future = bookingRepository.findAllByBookerIdAndState(booker.getId(), BookingState.FUTURE, now, 1, 5);
+        assertEquals(future.size(), 2);
+        assertEquals(future.get(0).getId(), second.getId());
+        assertEquals(future.get(1).getId(), third.getId());
+
+        List<Booking> waiting = bookingRepository.findAllByBookerIdAndState(booker.getId(), BookingState.WAITING, now, 0, 1);
+        assertEquals(waiting.size(), 1);
+        assertEquals(waiting.get(0).getId(), first.getId());
+    }
+
+    @Test
+    public void testCountGroupByState() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        User owner = entityManager.persist(User.builder()
+                .email("simple@id.ru")
+                .name("Dave")
+                .build());
+        User booker = entityManager.persist(User.builder()
+                .email("mail@id.ru")
+                .name("Danil")
+                .build());
+        Item item = entityManager.persist(Item.builder()
+                .name("Лопата")
+                .description("Лопата Деда.")
+                .available(true)
+                .owner(owner)
+                .build());
+        entityManager.persist(booking(item, booker, now.plusDays(1), BookingStatus.WAITING));
+        entityManager.persist(booking(item, booker, now.plusDays(2), BookingStatus.REJECTED));
+        entityManager.persist(booking(item, booker, now.minusHours(1), BookingStatus.APPROVED));
+        entityManager.persist(booking(item, booker, now.minusDays(2), BookingStatus.APPROVED));
+
+        Map<BookingState, Long> counts = bookingRepository.countByItemOwnerIdGroupByState(owner.getId(), now);
+        assertEquals(counts.get(BookingState.ALL), 4L);
+        assertEquals(counts.get(BookingState.CURRENT), 1L);
+        assertEquals(counts.get(BookingState.PAST), 1L);
+        assertEquals(counts.get(BookingState.FUTURE), 2L);
+        assertEquals(counts.get(BookingState.WAITING), 1L);
+        assertEquals(counts.get(BookingState.REJECTED), 1L);
+        assertEquals(counts, bookingRepository.countByBookerIdGroupByState(booker.getId(), now));
+
+        Map<BookingState, Long> empty = bookingRepository.countByBookerIdGroupByState(owner.getId(), now);
+        assertEquals(empty.get(BookingState.ALL), 0L);
+        assertEquals(empty.get(BookingState.FUTURE), 0L);
+    }
+
+    @Test
+    public void testUpdateStatusByIdIn() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        User owner = entityManager.persist(User.builder()
+                .email("simple@id.ru")
+                .name("Dave")
+                .build());
+        User booker = entityManager.persist(User.builder()
+                .email("mail@id.ru")
+                .name("Danil")
+                .build());
+        Item item = entityManager.persist(Item.builder()
+                .name("Лопата")
+                .description("Лопата Деда.")
+                .available(true)
+                .owner(owner)
+                .build());
+        Booking first = entityManager.persist(booking(item, booker, now.plusDays(1), BookingStatus.WAITING));
+        Booking second = entityManager.persist(booking(item, booker, now.plusDays(2), BookingStatus.WAITING));
+        Booking third = entityManager.persist(booking(item, booker, now.plusDays(3), BookingStatus.WAITING));
+        entityManager.flush();
+
+        List<Booking> locked = bookingRepository.findAllByIdInForUpdate(List.of(first.getId(), second.getId()));
+        assertEquals(locked.size(), 2);
+        assertEquals(bookingRepository.updateStatusByIdIn(List.of(first.getId(), second.getId()), BookingStatus.APPROVED), 2);
+        assertEquals(bookingRepository.findById(first.getId()).orElseThrow().getStatus(), BookingStatus.APPROVED);
+        assertEquals(bookingRepository.findById(second.getId()).orElseThrow().getStatus(), BookingStatus.APPROVED);
+        assertEquals(bookingRepository.findById(third.getId()).orElseThrow().getStatus(), BookingStatus.WAITING);
+    }
+
+    @Test
+    public void testFindWaiting() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        User owner = entityManager.persist(User.builder()
+                .email("simple@id.ru")
+                .name("Dave")
+                .build());
+        User booker = entityManager.persist(User.builder()
+                .email("mail@id.ru")
+                .name("Danil")
+                .build());
+        Item item = entityManager.persist(Item.builder()
+                .name("Лопата")
+                .description("Лопата Деда.")
+                .available(true)
+                .owner(owner)
+                .build());
+        Booking waiting = entityManager.persist(booking(item, booker, now.plusDays(1), BookingStatus.WAITING));
+        entityManager.persist(booking(item, booker, now.plusDays(2), BookingStatus.APPROVED));
+
+        List<BookingShort> bookings = bookingRepository.findWaiting();
+        assertEquals(bookings.size(), 1);
+        assertEquals(bookings.get(0).getId(), waiting.getId());
+        assertEquals(bookings.get(0).getStart(), waiting.getStart());
+    }
+
+    @Test
+    public void testFindArchived() {
+        LocalDateTime start = LocalDateTime.now().minusYears(3).withNano(0);
+        User owner = entityManager.persist(User.builder()
+                .email("simple@id.ru")
+                .name("Dave")
+                .build());
+        User booker = entityManager.persist(User.builder()
+                .email("mail@id.ru")
+                .name("Danil")
+                .build());
+        Item item = entityManager.persist(Item.builder()
+                .name("Лопата")
+                .description("Лопата Деда.")
+                .available(true)
+                .owner(owner)
+                .build());
+        for (long id = 1001; id <= 1003; id++) {
+            entityManager.getEntityManager()
+                    .createNativeQuery("INSERT INTO bookings_archive (id, start_date, end_date, item_id, booker_id, status) " +
+                            "VALUES (?, ?, ?, ?, ?, 'APPROVED')")
+                    .setParameter(1, id)
+                    .setParameter(2, start.plusDays(id))
+                    .setParameter(3, start.plusDays(id + 1))
+                    .setParameter(4, item.getId())
+                    .setParameter(5, booker.getId())
+                    .executeUpdate();
+        }
+
+        List<Booking> archived = bookingRepository.findArchivedByBookerId(booker.getId(), 1, 5);
+        assertEquals(archived.size(), 2);
+        assertEquals(archived.get(0).getId(), 1002L);
+        assertEquals(archived.get(1).getId(), 1001L);
+        assertEquals(archived.get(0).getItem().getId(), item.getId());
+        assertEquals(archived.get(0).getStatus(), BookingStatus.APPROVED);
+        assertEquals(bookingRepository.findArchivedByItemOwnerId(owner.getId(), 0, 5).size(), 3);
+        assertEquals(bookingRepository.findArchivedByItemOwnerId(booker.getId(), 0, 5).size(), 0);
+        assertEquals(bookingRepository.findAllByBookerIdAndState(booker.getId(), BookingState.PAST,
+                LocalDateTime.now(), 0, 5).size(), 0);
+    }
+
+    @Test
+    public void testFindApprovedByItemIdBetween() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        User owner = entityManager.persist(User.builder()
+                .email("simple@id.ru")
+                .name("Dave")
+                .build());
+        User booker = entityManager.persist(User.builder()
+                .email("mail@id.ru")
+                .name("Danil")
+                .build());
+        Item item = entityManager.persist(Item.builder()
+                .name("Лопата")
+                .description("Лопата Деда.")
+                .available(true)
+                .owner(owner)
+                .build());
+        Booking approved = entityManager.persist(booking(item, booker, now.minusDays(1), BookingStatus.APPROVED));
+        entityManager.persist(booking(item, booker, now.minusDays(2), BookingStatus.REJECTED));
+        entityManager.persist(booking(item, booker, now.plusDays(1), BookingStatus.APPROVED));
+        entityManager.getEntityManager()
+                .createNativeQuery("INSERT INTO bookings_archive (id, start_date, end_date, item_id, booker_id, status) " +
+                        "VALUES (1001, ?, ?, ?, ?, 'APPROVED')")
+                .setParameter(1, now.minusDays(3))
+                .setParameter(2, now.minusDays(3).plusHours(2))
+                .setParameter(3, item.getId())
+                .setParameter(4, booker.getId())
+                .executeUpdate();
+
+        List<BookingShort> booked = bookingRepository.findApprovedByItemIdBetween(item.getId(), now.minusDays(5), now);
+        assertEquals(booked.size(), 2);
+        assertEquals(Set.of(booked.get(0).getId(), booked.get(1).getId()), Set.of(approved.getId(), 1001L));
+    }
+
+    private Booking booking(Item item, User booker, LocalDateTime start, BookingStatus status) {
+        return Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(start.plusHours(2))
+                .status(status)
+                .build();
+    }
+}
@@ -1,29 +1,43 @@
 package ru.practicum.shareit.booking;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingTransitionRepository;
+import ru.practicum.shareit.booking.scheduler.BookingExpiryScheduler;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.BookingOverlapException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.NotImplementedException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemAvailabilityIndex;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserIdRegistry;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
@@ -37,6 +51,14 @@ public class BookingServiceTest {
     private ItemRepository itemRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private UserIdRegistry userIdRegistry;
+    @Mock
+    private ItemAvailabilityIndex itemAvailabilityIndex;
+    @Mock
+    private BookingExpiryScheduler bookingExpiryScheduler;
+    @Mock
+    private BookingTransitionRepository bookingTransitionRepository;
     @InjectMocks
     private BookingServiceImpl bookingService;
     private static Booking booking;
@@ -75,8 +97,8 @@ public class BookingServiceTest {
 
     @Test
     public void testGet() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.of(booking));
         Booking currentBooking = bookingService.get(1L, 1L);
@@ -87,14 +109,35 @@ public class BookingServiceTest {
 
     }
 
+    @Test
+    public void testGetWithDeletedItem() {
+        Booking deleted = Booking.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(Item.builder()
+                        .id(item.getId())
+                        .owner(item.getOwner())
+                        .deletedAt(LocalDateTime.now())
+                        .build())
+                .booker(booking.getBooker())
+                .status(booking.getStatus())
+                .build();
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(bookingRepository.findById(anyLong()))
+                .thenReturn(Optional.of(deleted));
+        assertThrows(NotFoundException.class, () -> bookingService.get(1L, 1L));
+    }
+
     @Test
     public void testGetWithIncorrectUserId() {
         User newUser = User.builder()
                 .id(3L)
                 .email("mail@ya.ru")
                 .name("Lisa Fig").build();
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(newUser));
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.of(booking));
         assertThrows(NotFoundException.class, () -> bookingService.get(1L, 3L));
@@ -111,9 +154,9 @@ public class BookingServiceTest {
                 .booker(user)
                 .item(item)
                 .build();
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBookerIdOrderByStartDesc(anyLong(), any()))
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(bookingRepository.findAllByBookerIdAndState(anyLong(), eq(BookingState.ALL), any(LocalDateTime.class), eq(0), eq(20)))
                 .thenReturn(List.of(booking, booking2));
         List<Booking> currentList = bookingService.getAllByUserId(BookingState.ALL.name(), 1L, 0, 20);
         assertEquals(currentList.get(0).getId(), booking.getId());
@@ -131,9 +174,9 @@ public class BookingServiceTest {
                 .booker(user)
                 .item(item)
                 .build();
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(anyLong(), any(), any()))
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(bookingRepository.findAllByBookerIdAndState(anyLong(), eq(BookingState.WAITING), any(LocalDateTime.class), eq(0), eq(20)))
                 .thenReturn(List.of(booking, booking2));
         List<Booking> currentList = bookingService.getAllByUserId(BookingState.WAITING.name(), 1L, 0, 20);
         assertEquals(currentList.get(0).getId(), booking.getId());
@@ -151,9 +194,9 @@ public class BookingServiceTest {
                 .booker(user)
                 .item(item)
                 .build();
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(anyLong(), any(), any()))
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(bookingRepository.findAllByBookerIdAndState(anyLong(), eq(BookingState.REJECTED), any(LocalDateTime.class), eq(0), eq(20)))
                 .thenReturn(List.of(booking, booking2));
         List<Booking> currentList = bookingService.getAllByUserId(BookingState.REJECTED.name(), 1L, 0, 20);
         assertEquals(currentList.get(0).getId(), booking.getId());
@@ -171,9 +214,9 @@ public class BookingServiceTest {
                 .booker(user)
                 .item(item)
                 .build();
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(anyLong(), any(), any()))
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(bookingRepository.findAllByBookerIdAndState(anyLong(), eq(BookingState.FUTURE), any(LocalDateTime.class), eq(0), eq(20)))
                 .thenReturn(List.of(booking2));
         List<Booking> currentList = bookingService.getAllByUserId(BookingState.FUTURE.name(), 1L, 0, 20);
         assertEquals(currentList.get(0).getId(), booking2.getId());
@@ -183,17 +226,17 @@ public class BookingServiceTest {
 
     @Test
     public void testGetAllByUserIdIncorrectState() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user2));
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
         assertThrows(NotImplementedException.class, () -> bookingService.getAllByUserId("Unknown", 2L, 0, 20));
 
     }
 
     @Test
     public void testAllByItemOwnerWithStateAll() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user2));
-        when(bookingRepository.findAllByItemOwnerIdOrderByStartDesc(anyLong(), any()))
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(bookingRepository.findAllByItemOwnerIdAndState(anyLong(), eq(BookingState.ALL), any(LocalDateTime.class), eq(0), eq(20)))
                 .thenReturn(List.of(booking));
         List<Booking> currentList = bookingService.getAllByItemOwner(BookingState.ALL.name(), 2L, 0, 20);
         assertEquals(currentList.get(0).getId(), booking.getId());
@@ -204,9 +247,9 @@ public class BookingServiceTest {
 
     @Test
     public void testAllByItemOwnerWithStateWaiting() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user2));
-        when(bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(anyLong(), any(), any()))
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(bookingRepository.findAllByItemOwnerIdAndState(anyLong(), eq(BookingState.WAITING), any(LocalDateTime.class), eq(0), eq(20)))
                 .thenReturn(List.of(booking));
         List<Booking> currentList = bookingService.getAllByItemOwner(BookingState.WAITING.name(), 2L, 0, 20);
         assertEquals(currentList.get(0).getId(), booking.getId());
@@ -225,9 +268,9 @@ public class BookingServiceTest {
                 .booker(user)
                 .item(item)
                 .build();
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user2));
-        when(bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(anyLong(), any(), any()))
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(bookingRepository.findAllByItemOwnerIdAndState(anyLong(), eq(BookingState.REJECTED), any(LocalDateTime.class), eq(0), eq(20)))
                 .thenReturn(List.of(booking2));
         List<Booking> currentList = bookingService.getAllByItemOwner(BookingState.REJECTED.name(), 2L, 0, 20);
         assertEquals(currentList.get(0).getId(), booking2.getId());
@@ -246,9 +289,9 @@ public class BookingServiceTest {
                 .booker(user)
                 .item(item)
                 .build();
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
-        when(bookingRepository.findAllByItemOwnerIdAndStartAfterOrderByStartDesc(anyLong(), any(), any()))
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(bookingRepository.findAllByItemOwnerIdAndState(anyLong(), eq(BookingState.FUTURE), any(LocalDateTime.class), eq(0), eq(20)))
                 .thenReturn(List.of(booking2));
         List<Booking> currentList = bookingService.getAllByItemOwner(BookingState.FUTURE.name(), 1L, 0, 20);
         assertEquals(currentList.get(0).getId(), booking2.getId());
@@ -258,16 +301,77 @@ public class BookingServiceTest {
 
     @Test
     public void testAllByItemOwnerIncorrectState() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user2));
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
         assertThrows(NotImplementedException.class, () -> bookingService.getAllByItemOwner("Unknown", 2L, 0, 20));
 
     }
 
+    @Test
+    public void testGetArchive() {
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(bookingRepository.findArchivedByBookerId(1L, 0, 20))
+                .thenReturn(List.of(booking));
+        when(bookingRepository.findArchivedByItemOwnerId(2L, 0, 20))
+                .thenReturn(List.of(booking));
+        assertEquals(bookingService.getArchiveByUserId(1L, 0, 20).get(0).getId(), booking.getId());
+        assertEquals(bookingService.getArchiveByItemOwner(2L, 0, 20).get(0).getId(), booking.getId());
+    }
+
+    @Test
+    public void testGetSummaryByUserId() {
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(bookingRepository.countByBookerIdGroupByState(anyLong(), any(LocalDateTime.class)))
+                .thenReturn(Map.of(BookingState.ALL, 3L, BookingState.WAITING, 2L));
+        Map<BookingState, Long> summary = bookingService.getSummaryByUserId(1L);
+        assertEquals(summary.get(BookingState.ALL), 3L);
+        assertEquals(summary.get(BookingState.WAITING), 2L);
+    }
+
+    @Test
+    public void testGetSummaryByItemOwnerWithIncorrectUser() {
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(false);
+        assertThrows(NotFoundException.class, () -> bookingService.getSummaryByItemOwner(99L));
+        verify(bookingRepository, never()).countByItemOwnerIdGroupByState(anyLong(), any());
+    }
+
+    @Test
+    public void testGetAllByUserIdWithCursor() {
+        PageCursor cursor = PageCursor.of(LocalDateTime.now().plusDays(1), 5L);
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(bookingRepository.findAllByBookerIdAndState(anyLong(), eq(BookingState.FUTURE), any(), eq(cursor), eq(20)))
+                .thenReturn(List.of(booking));
+        List<Booking> currentList = bookingService.getAllByUserId(BookingState.FUTURE.name(), 1L, cursor, 20);
+        assertEquals(currentList.get(0).getId(), booking.getId());
+    }
+
+    @Test
+    public void testAllByItemOwnerWithCursor() {
+        PageCursor cursor = PageCursor.of(LocalDateTime.now().plusDays(1), 5L);
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(bookingRepository.findAllByItemOwnerIdAndState(anyLong(), eq(BookingState.ALL), any(), eq(cursor), eq(20)))
+                .thenReturn(List.of(booking));
+        List<Booking> currentList = bookingService.getAllByItemOwner(BookingState.ALL.name(), 2L, cursor, 20);
+        assertEquals(currentList.get(0).getId(), booking.getId());
+        assertEquals(currentList.get(0).getItem().getOwner().getId(), user2.getId());
+    }
+
+    @Test
+    public void testAllByItemOwnerWithCursorIncorrectState() {
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        assertThrows(NotImplementedException.class, () -> bookingService.getAllByItemOwner("Unknown", 2L, (PageCursor) null, 20));
+    }
+
     @Test
     public void testUpdate() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user2));
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.of(booking));
         when(bookingRepository.save(any(Booking.class)))
@@ -277,7 +381,63 @@ public class BookingServiceTest {
         assertEquals(currentBooking.getItem(), booking.getItem());
         assertEquals(currentBooking.getBooker(), booking.getBooker());
         assertEquals(currentBooking.getStatus(), BookingStatus.APPROVED);
+        verify(itemAvailabilityIndex).markBooked(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+        verify(bookingTransitionRepository).save(argThat(transition -> transition.getBookingId().equals(booking.getId())
+                && transition.getToStatus() == BookingStatus.APPROVED));
+    }
 
+    @Test
+    public void testUpdateAll() {
+        Booking approved = Booking.builder()
+                .id(2L)
+                .status(BookingStatus.APPROVED)
+                .booker(user)
+                .item(item)
+                .build();
+        Booking foreign = Booking.builder()
+                .id(3L)
+                .status(BookingStatus.WAITING)
+                .booker(user2)
+                .item(Item.builder()
+                        .id(2L)
+                        .owner(user)
+                        .build())
+                .build();
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(bookingRepository.findAllByIdInForUpdate(Set.of(1L, 2L, 3L, 4L)))
+                .thenReturn(List.of(booking, approved, foreign));
+        List<BookingBatchResultDto> results = bookingService.updateAll(List.of(1L, 2L, 3L, 4L, 1L), 2L, false);
+        assertEquals(results.size(), 4);
+        assertEquals(results.get(0).getStatus(), BookingStatus.REJECTED);
+        assertNull(results.get(0).getError());
+        assertEquals(results.get(1).getStatus(), BookingStatus.APPROVED);
+        assertNotNull(results.get(1).getError());
+        assertNotNull(results.get(2).getError());
+        assertEquals(results.get(3).getBookingId(), 4L);
+        assertNotNull(results.get(3).getError());
+        verify(bookingRepository).updateStatusByIdIn(List.of(1L), BookingStatus.REJECTED);
+        verify(bookingTransitionRepository).saveAll(argThat(transitions -> transitions.iterator().hasNext()));
+        verify(itemAvailabilityIndex, never()).markBooked(any(), any(), any());
+    }
+
+    @Test
+    public void testUpdateAllWithoutEligibleBookings() {
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(bookingRepository.findAllByIdInForUpdate(Set.of(7L)))
+                .thenReturn(List.of());
+        List<BookingBatchResultDto> results = bookingService.updateAll(List.of(7L), 2L, true);
+        assertNotNull(results.get(0).getError());
+        verify(bookingRepository, never()).updateStatusByIdIn(any(), any());
+    }
+
+    @Test
+    public void testUpdateAllWithEmptyIds() {
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        assertThrows(BadRequestException.class, () -> bookingService.updateAll(List.of(), 2L, true));
+        assertThrows(BadRequestException.class, () -> bookingService.updateAll(List.of(1L), 2L, null));
     }
 
     @Test
@@ -290,8 +450,8 @@ public class BookingServiceTest {
                 .booker(user)
                 .item(item)
                 .build();
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user2));
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.of(booking2));
         assertThrows(BadRequestException.class, () -> bookingService.update(1L, 2L, true));
@@ -308,8 +468,8 @@ public class BookingServiceTest {
                 .booker(user)
                 .item(item)
                 .build();
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user2));
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.of(booking2));
         assertThrows(NotFoundException.class, () -> bookingService.update(1L, 1L, true));
@@ -318,8 +478,8 @@ public class BookingServiceTest {
 
     @Test
     public void testUpdateWithIncorrectBooking() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user2));
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.empty());
         assertThrows(NotFoundException.class, () -> bookingService.update(1L, 1L, true));
@@ -330,7 +490,7 @@ public class BookingServiceTest {
     public void testAdd() {
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findByIdForUpdate(anyLong()))
                 .thenReturn(Optional.of(item));
         when(bookingRepository.save(any(Booking.class)))
                 .thenReturn(booking);
@@ -339,14 +499,53 @@ public class BookingServiceTest {
         assertEquals(currentBooking.getItem(), booking.getItem());
         assertEquals(currentBooking.getBooker(), booking.getBooker());
         assertEquals(currentBooking.getStatus(), BookingStatus.WAITING);
+        verify(bookingExpiryScheduler).schedule(booking.getId(), booking.getStart());
+    }
 
+    @Test
+    public void testAddWithOverlapConstraint() {
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(user));
+        when(itemRepository.findByIdForUpdate(anyLong()))
+                .thenReturn(Optional.of(item));
+        when(bookingRepository.save(any(Booking.class)))
+                .thenThrow(new DataIntegrityViolationException("conflict", new ConstraintViolationException(
+                        "conflict", new SQLException("ERROR: conflicting key value violates exclusion constraint "
+                        + "\"ex_bookings_2030_01_item_period\"", "23P01"), null)));
+        assertThrows(BookingOverlapException.class, () -> bookingService.add(booking, 1L));
+    }
+
+    @Test
+    public void testAddWithOtherConstraintViolation() {
+        DataIntegrityViolationException exception = new DataIntegrityViolationException("fk",
+                new ConstraintViolationException("fk", new SQLException(), "fk_bookings_to_users"));
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(user));
+        when(itemRepository.findByIdForUpdate(anyLong()))
+                .thenReturn(Optional.of(item));
+        when(bookingRepository.save(any(Booking.class)))
+                .thenThrow(exception);
+        assertEquals(exception, assertThrows(DataIntegrityViolationException.class, () -> bookingService.add(booking, 1L)));
+    }
+
+    @Test
+    public void testAddWithOverlap() {
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(user));
+        when(itemRepository.findByIdForUpdate(anyLong()))
+                .thenReturn(Optional.of(item));
+        when(bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(anyLong(), anyCollection(),
+                any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(true);
+        assertThrows(BookingOverlapException.class, () -> bookingService.add(booking, 1L));
+        verify(bookingRepository, never()).save(any(Booking.class));
     }
 
     @Test
     public void testAddWithIncorrectUserId() {
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.empty());
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findByIdForUpdate(anyLong()))
                 .thenReturn(Optional.of(item));
         assertThrows(NotFoundException.class, () -> bookingService.add(booking, 1L));
 
@@ -356,7 +555,7 @@ public class BookingServiceTest {
     public void testAddWithIncorrectBooker() {
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.of(user2));
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findByIdForUpdate(anyLong()))
                 .thenReturn(Optional.of(item));
         assertThrows(NotFoundException.class, () -> bookingService.add(booking, 2L));
 
@@ -374,7 +573,7 @@ public class BookingServiceTest {
                 .build();
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findByIdForUpdate(anyLong()))
                 .thenReturn(Optional.of(item));
         assertThrows(BadRequestException.class, () -> bookingService.add(booking2, 1L));
 
@@ -388,7 +587,7 @@ public class BookingServiceTest {
                 .description("Палатка двухместная.")
                 .available(false)
                 .build();
-        when(itemRepository.findById(anyLong()))
+        when(itemRepository.findByIdForUpdate(anyLong()))
                 .thenReturn(Optional.of(newItem));
         Booking booking2 = Booking.builder()
                 .id(2L)
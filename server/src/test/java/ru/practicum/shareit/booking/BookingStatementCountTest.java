@@ -0,0 +1,121 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.dto.BookingResponseDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class BookingStatementCountTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private BookingRepository bookingRepository;
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private Booking booking;
+
+    @BeforeEach
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        owner = entityManager.persist(User.builder()
+                .email("simple@id.ru")
+                .name("Dave")
+                .build());
+        booker = entityManager.persist(User.builder()
+                .email("mail@id.ru")
+                .name("Danil")
+                .build());
+        User requester = entityManager.persist(User.builder()
+                .email("request@id.ru")
+                .name("Dima")
+                .build());
+        ItemRequest request = entityManager.persist(ItemRequest.builder()
+                .description("Нужна лопата")
+                .requester(requester)
+                .created(now)
+                .build());
+        for (int i = 0; i < 5; i++) {
+            User itemOwner = i % 2 == 0 ? owner : entityManager.persist(User.builder()
+                    .email("owner" + i + "@id.ru")
+                    .name("Owner" + i)
+                    .build());
+            Item item = entityManager.persist(Item.builder()
+                    .name("Лопата " + i)
+                    .description("Лопата Деда.")
+                    .available(true)
+                    .owner(itemOwner)
+                    .request(i == 0 ? request : null)
+                    .build());
+            booking = entityManager.persist(Booking.builder()
+                    .item(item)
+                    .booker(i < 3 ? booker : requester)
+                    .start(now.plusDays(i + 1))
+                    .end(now.plusDays(i + 2))
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testFindAllByBookerIdLoadsGraphInOneStatement() {
+        assertStatementCount(() -> bookingRepository.findAllByBookerIdAndState(booker.getId(), BookingState.ALL,
+                LocalDateTime.now(), 0, 20), 3);
+    }
+
+    @Test
+    public void testFindAllByItemOwnerIdLoadsGraphInOneStatement() {
+        assertStatementCount(() -> bookingRepository.findAllByItemOwnerIdAndState(owner.getId(), BookingState.WAITING,
+                LocalDateTime.now(), 0, 20), 3);
+    }
+
+    @Test
+    public void testFindAllByStateLoadsGraphInOneStatement() {
+        assertStatementCount(() -> bookingRepository.findAllByItemOwnerIdAndState(owner.getId(), BookingState.ALL,
+                LocalDateTime.now(), null, 20), 3);
+    }
+
+    @Test
+    public void testFindByIdLoadsGraphInOneStatement() {
+        assertStatementCount(() -> List.of(bookingRepository.findById(booking.getId()).orElseThrow()), 1);
+    }
+
+    private void assertStatementCount(Supplier<List<Booking>> query, int expectedSize) {
+        List<BookingResponseDto> bookings = query.get().stream()
+                .map(BookingMapper::toBookingResponseDto)
+                .collect(Collectors.toList());
+        bookings.forEach(dto -> {
+            dto.getItem().getOwner().getName();
+            dto.getBooker().getName();
+            if (dto.getItem().getRequest() != null) {
+                dto.getItem().getRequest().getRequester().getName();
+            }
+        });
+        assertEquals(expectedSize, bookings.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
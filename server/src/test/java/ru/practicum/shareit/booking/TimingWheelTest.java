@@ -0,0 +1,54 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.scheduler.TimingWheel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimingWheelTest {
+    private static final long START = 1_000_000L;
+
+    @Test
+    public void testAddRejectsDueTimer() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, START);
+        assertFalse(wheel.add(START - 5, "past"));
+        assertFalse(wheel.add(START + 9, "current tick"));
+        assertTrue(wheel.add(START + 10, "next tick"));
+    }
+
+    @Test
+    public void testAdvanceExpiresTimersInOrder() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, START);
+        wheel.add(START + 35, "third");
+        wheel.add(START + 12, "first");
+        wheel.add(START + 25, "second");
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(START + 19, expired::add);
+        assertEquals(expired, List.of("first"));
+
+        wheel.advance(START + 40, expired::add);
+        assertEquals(expired, List.of("first", "second", "third"));
+    }
+
+    @Test
+    public void testAdvanceCascadesFromOverflowWheels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(10, 8, START);
+        List<Long> deadlines = List.of(START + 75L, START + 80L, START + 640L, START + 5_000L, START + 123_456L);
+        deadlines.forEach(deadline -> assertTrue(wheel.add(deadline, deadline)));
+        List<Long> expired = new ArrayList<>();
+
+        for (Long deadline : deadlines) {
+            wheel.advance(deadline - 10, expired::add);
+            assertFalse(expired.contains(deadline));
+            wheel.advance(deadline, expired::add);
+            assertTrue(expired.contains(deadline));
+        }
+        assertEquals(expired, deadlines);
+    }
+}
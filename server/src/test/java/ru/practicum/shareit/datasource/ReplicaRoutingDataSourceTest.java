@@ -0,0 +1,196 @@
+package ru.practicum.shareit.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserIdRegistry;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReplicaRoutingDataSourceTest {
+    private static final String PRIMARY_URL = "jdbc:h2:mem:primary";
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica";
+
+    private final DataSource primary = new DriverManagerDataSource(PRIMARY_URL);
+    private final Map<String, DataSource> replicas = Map.of("replica-0", new DriverManagerDataSource(REPLICA_URL));
+    private ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofMinutes(1), 100);
+
+    @AfterEach
+    public void tearDown() {
+        readYourWrites.end();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    public void testReadOnlyTransactionUsesReplica() throws SQLException {
+        DataSource dataSource = routing(new ReplicationLagMonitor(replicas, Duration.ofSeconds(5), "SELECT 0"));
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(REPLICA_URL, url(dataSource));
+    }
+
+    @Test
+    public void testWriteTransactionUsesPrimary() throws SQLException {
+        DataSource dataSource = routing(new ReplicationLagMonitor(replicas, Duration.ofSeconds(5), "SELECT 0"));
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertEquals(PRIMARY_URL, url(dataSource));
+    }
+
+    @Test
+    public void testLaggingReplicaFallsBackToPrimary() throws SQLException {
+        ReplicationLagMonitor monitor = new ReplicationLagMonitor(replicas, Duration.ofSeconds(5), "SELECT 10");
+        DataSource dataSource = routing(monitor);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertNull(monitor.nextReplica());
+        assertEquals(PRIMARY_URL, url(dataSource));
+    }
+
+    @Test
+    public void testUnreachableReplicaFallsBackToPrimary() throws SQLException {
+        ReplicationLagMonitor monitor = new ReplicationLagMonitor(replicas, Duration.ofSeconds(5), "SELECT broken");
+        DataSource dataSource = routing(monitor);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(PRIMARY_URL, url(dataSource));
+    }
+
+    @Test
+    public void testCommittedWritePinsClientToPrimary() throws SQLException {
+        DataSource dataSource = routing(new ReplicationLagMonitor(replicas, Duration.ofSeconds(5), "SELECT 0"));
+
+        readYourWrites.begin("user:1");
+        write(dataSource);
+        assertEquals(PRIMARY_URL, read(dataSource));
+        readYourWrites.end();
+
+        readYourWrites.begin("user:1");
+        assertEquals(PRIMARY_URL, read(dataSource));
+        readYourWrites.end();
+
+        readYourWrites.begin("user:2");
+        assertEquals(REPLICA_URL, read(dataSource));
+    }
+
+    @Test
+    public void testRolledBackWriteDoesNotPin() throws SQLException {
+        DataSource dataSource = routing(new ReplicationLagMonitor(replicas, Duration.ofSeconds(5), "SELECT 0"));
+
+        readYourWrites.begin("user:1");
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        url(dataSource);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(REPLICA_URL, read(dataSource));
+    }
+
+    @Test
+    public void testPinExpiresAfterWindow() throws SQLException {
+        readYourWrites = new ReadYourWrites(Duration.ZERO, 100);
+        DataSource dataSource = routing(new ReplicationLagMonitor(replicas, Duration.ofSeconds(5), "SELECT 0"));
+
+        readYourWrites.begin("user:1");
+        write(dataSource);
+        readYourWrites.end();
+
+        readYourWrites.begin("user:1");
+        assertEquals(REPLICA_URL, read(dataSource));
+    }
+
+    @Test
+    public void testFreshUserSurvivesLaggingReplica() {
+        DataSource primaryUsers = new DriverManagerDataSource("jdbc:h2:mem:primary-users;DB_CLOSE_DELAY=-1");
+        DataSource laggingUsers = new DriverManagerDataSource("jdbc:h2:mem:lagging-users;DB_CLOSE_DELAY=-1");
+        new JdbcTemplate(primaryUsers).execute("CREATE TABLE users (id BIGINT PRIMARY KEY)");
+        new JdbcTemplate(laggingUsers).execute("CREATE TABLE users (id BIGINT PRIMARY KEY)");
+        new JdbcTemplate(primaryUsers).update("INSERT INTO users VALUES (1)");
+        Map<String, DataSource> laggingReplicas = Map.of("replica-0", laggingUsers);
+        ReplicationLagMonitor monitor = new ReplicationLagMonitor(laggingReplicas, Duration.ofSeconds(5), "SELECT 0");
+        monitor.check();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryUsers,
+                laggingReplicas, monitor, readYourWrites));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findAllIds())
+                .thenAnswer(invocation -> jdbcTemplate.queryForList("SELECT id FROM users", Long.class));
+        when(userRepository.existsById(anyLong()))
+                .thenAnswer(invocation -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE id = ?",
+                        Integer.class, invocation.<Long>getArgument(0)) > 0);
+        UserIdRegistry userIdRegistry = new UserIdRegistry(userRepository, transactionManager);
+
+        readOnly.executeWithoutResult(status -> userIdRegistry.warmUp());
+
+        Integer replicaUsers = readOnly.execute(status -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users",
+                Integer.class));
+        assertEquals(0, replicaUsers);
+        assertEquals(Boolean.TRUE, readOnly.execute(status -> userIdRegistry.exists(1L)));
+        assertEquals(Boolean.TRUE, readOnly.execute(status -> userIdRegistry.exists(1L)));
+    }
+
+    private DataSource routing(ReplicationLagMonitor monitor) {
+        monitor.check();
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicas, monitor,
+                readYourWrites));
+    }
+
+    private static void write(DataSource dataSource) throws SQLException {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        url(dataSource);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    private static String read(DataSource dataSource) throws SQLException {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            return url(dataSource);
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    private static String url(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+}
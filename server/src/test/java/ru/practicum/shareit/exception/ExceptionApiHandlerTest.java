@@ -41,4 +41,11 @@ public class ExceptionApiHandlerTest {
         Map<String, Integer> response = exceptionApiHandler.handleEmailBusy(emailBusyException);
         assertEquals(response.get("почта занята"), 409);
     }
+
+    @Test
+    public void testBookingOverlapException() {
+        BookingOverlapException bookingOverlapException = new BookingOverlapException("предмет уже забронирован");
+        Map<String, Integer> response = exceptionApiHandler.handleBookingOverlap(bookingOverlapException);
+        assertEquals(response.get("предмет уже забронирован"), 409);
+    }
 }
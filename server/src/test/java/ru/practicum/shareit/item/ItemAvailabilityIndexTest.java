@@ -0,0 +1,174 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.BookingShort;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.AvailabilityPeriodDto;
+import ru.practicum.shareit.item.service.ItemAvailabilityIndex;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemAvailabilityIndexTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    @InjectMocks
+    private ItemAvailabilityIndex itemAvailabilityIndex;
+    private LocalDateTime start;
+
+    @BeforeEach
+    public void setUp() {
+        start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        when(bookingRepository.findApprovedEndingAfter(any(LocalDateTime.class)))
+                .thenReturn(List.of(booking(1L, start, start.plusHours(2)),
+                        booking(1L, start.plusHours(1), start.plusHours(4)),
+                        booking(1L, start.plusDays(3), start.plusDays(4)),
+                        booking(2L, start, start.plusDays(1))));
+        itemAvailabilityIndex.rebuild();
+    }
+
+    @Test
+    public void testFindBookedMergesAdjacentSlots() {
+        List<AvailabilityPeriodDto> booked = itemAvailabilityIndex.findBooked(1L, start.minusDays(1), start.plusDays(10));
+        assertEquals(booked, List.of(period(start, start.plusHours(4)), period(start.plusDays(3), start.plusDays(4))));
+    }
+
+    @Test
+    public void testFindBookedClipsToRange() {
+        List<AvailabilityPeriodDto> booked = itemAvailabilityIndex.findBooked(1L, start.plusMinutes(90), start.plusDays(3).plusHours(5));
+        assertEquals(booked, List.of(period(start.plusMinutes(90), start.plusHours(4)),
+                period(start.plusDays(3), start.plusDays(3).plusHours(5))));
+    }
+
+    @Test
+    public void testFindBookedRoundsToHours() {
+        itemAvailabilityIndex.markBooked(3L, start.plusMinutes(10), start.plusMinutes(20));
+        assertEquals(itemAvailabilityIndex.findBooked(3L, start.minusHours(1), start.plusHours(2)),
+                List.of(period(start, start.plusHours(1))));
+    }
+
+    @Test
+    public void testFindBookedWithFreeRange() {
+        assertTrue(itemAvailabilityIndex.findBooked(1L, start.plusHours(4), start.plusDays(3)).isEmpty());
+        assertTrue(itemAvailabilityIndex.findBooked(4L, start, start.plusDays(10)).isEmpty());
+        assertTrue(itemAvailabilityIndex.findBooked(1L, start.plusYears(1), start.plusYears(2)).isEmpty());
+    }
+
+    @Test
+    public void testMarkBookedAndEvict() {
+        itemAvailabilityIndex.markBooked(1L, start.plusHours(4), start.plusHours(6));
+        assertEquals(itemAvailabilityIndex.findBooked(1L, start, start.plusDays(1)),
+                List.of(period(start, start.plusHours(6))));
+
+        itemAvailabilityIndex.evict(2L);
+        assertTrue(itemAvailabilityIndex.findBooked(2L, start, start.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    public void testRebuildStartsAtCurrentHour() {
+        verify(bookingRepository).findApprovedEndingAfter(LocalDateTime.now().truncatedTo(ChronoUnit.HOURS));
+    }
+
+    @Test
+    public void testFindBookedBeforeHorizonReadsDatabase() {
+        LocalDateTime horizon = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        when(bookingRepository.findApprovedByItemIdBetween(1L, horizon.minusDays(2), horizon))
+                .thenReturn(List.of(booking(1L, horizon.minusHours(30), horizon.minusHours(29)),
+                        booking(1L, horizon.minusHours(2), horizon.plusHours(2))));
+        itemAvailabilityIndex.markBooked(1L, horizon, horizon.plusHours(2));
+
+        assertEquals(itemAvailabilityIndex.findBooked(1L, horizon.minusDays(2), horizon.plusHours(3)),
+                List.of(period(horizon.minusHours(30), horizon.minusHours(29)),
+                        period(horizon.minusHours(2), horizon.plusHours(2))));
+    }
+
+    @Test
+    public void testMarkCommittedDuringRebuildIsKept() {
+        when(bookingRepository.findApprovedEndingAfter(any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    itemAvailabilityIndex.markBooked(5L, start, start.plusHours(1));
+                    return List.of();
+                });
+
+        itemAvailabilityIndex.rebuild();
+
+        assertEquals(itemAvailabilityIndex.findBooked(5L, start, start.plusDays(1)),
+                List.of(period(start, start.plusHours(1))));
+    }
+
+    @Test
+    public void testFindBookedBeyondHorizonReadsDatabase() {
+        LocalDateTime far = start.plusYears(2);
+        itemAvailabilityIndex.markBooked(6L, start, LocalDateTime.MAX);
+        when(bookingRepository.findApprovedByItemIdBetween(6L, far, far.plusDays(1)))
+                .thenReturn(List.of(booking(6L, start, LocalDateTime.MAX)));
+
+        assertEquals(itemAvailabilityIndex.findBooked(6L, start, start.plusDays(1)),
+                List.of(period(start, start.plusDays(1))));
+        assertEquals(itemAvailabilityIndex.findBooked(6L, far, far.plusDays(1)),
+                List.of(period(far, far.plusDays(1))));
+    }
+
+    @Test
+    public void testReloadReplacesOnlyGivenItems() {
+        when(bookingRepository.findApprovedByItemIdInEndingAfter(any(), any(LocalDateTime.class)))
+                .thenReturn(List.of(booking(1L, start.plusDays(3), start.plusDays(4))));
+
+        itemAvailabilityIndex.reloadAfterCommit(List.of(1L, 2L));
+
+        assertEquals(itemAvailabilityIndex.findBooked(1L, start, start.plusDays(10)),
+                List.of(period(start.plusDays(3), start.plusDays(4))));
+        assertTrue(itemAvailabilityIndex.findBooked(2L, start, start.plusDays(10)).isEmpty());
+        verify(bookingRepository).findApprovedByItemIdInEndingAfter(List.of(1L, 2L),
+                LocalDateTime.now().truncatedTo(ChronoUnit.HOURS));
+    }
+
+    private static BookingShort booking(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return new BookingShort() {
+            @Override
+            public Long getId() {
+                return 1L;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getBookerId() {
+                return 2L;
+            }
+        };
+    }
+
+    private static AvailabilityPeriodDto period(LocalDateTime start, LocalDateTime end) {
+        return AvailabilityPeriodDto.builder()
+                .start(start)
+                .end(end)
+                .build();
+    }
+}
@@ -7,23 +7,37 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.comment.dto.CommentDto;
+import ru.practicum.shareit.booking.dto.BookingForItemDto;
 import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
+import ru.practicum.shareit.item.dto.AvailabilityPeriodDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemStatusDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -67,6 +81,7 @@ public class ItemControllerTest {
                 .comments(List.of(comment))
                 .requestId(user.getId())
                 .available(false)
+                .version(2L)
                 .build();
         item3 = Item.builder()
                 .id(3L)
@@ -98,6 +113,37 @@ public class ItemControllerTest {
         verifyNoMoreInteractions(itemService);
     }
 
+    @Test
+    @SneakyThrows
+    public void testGetAvailability() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(7);
+        when(itemService.getAvailability(2L, 1L, from, to))
+                .thenReturn(ItemAvailabilityDto.builder()
+                        .itemId(2L)
+                        .from(from)
+                        .to(to)
+                        .available(false)
+                        .booked(List.of(AvailabilityPeriodDto.builder()
+                                .start(from.plusDays(1))
+                                .end(from.plusDays(2))
+                                .build()))
+                        .build());
+        mockMvc.perform(get("/items/2/availability")
+                        .header("X-Sharer-User-Id", "1")
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-08T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId").value(2))
+                .andExpect(jsonPath("$.available").value(false))
+                .andExpect(jsonPath("$.booked.length()").value(1))
+                .andExpect(jsonPath("$.booked[0].start").value("2030-01-02T00:00:00"))
+                .andExpect(jsonPath("$.booked[0].end").value("2030-01-03T00:00:00"));
+        verify(itemService, only())
+                .getAvailability(2L, 1L, from, to);
+        verifyNoMoreInteractions(itemService);
+    }
+
     @Test
     @SneakyThrows
     public void testGet() {
@@ -109,12 +155,26 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.id").value(item2.getId()))
                 .andExpect(jsonPath("$.name").value(item2.getName()))
                 .andExpect(jsonPath("$.available").value(item2.getAvailable()))
-                .andExpect(jsonPath("$.comments[0].id").value(comment.getId()));
+                .andExpect(jsonPath("$.comments[0].id").value(comment.getId()))
+                .andExpect(header().string(HttpHeaders.ETAG, EntityTags.of(item2.getVersion(), item2)));
         verify(itemService, only())
                 .get(anyLong(), anyLong());
         verifyNoMoreInteractions(itemService);
     }
 
+    @Test
+    @SneakyThrows
+    public void testGetNotModified() {
+        when(itemService.get(anyLong(), anyLong()))
+                .thenReturn(item2);
+        mockMvc.perform(get("/items/2")
+                        .header("X-Sharer-User-Id", "1")
+                        .header(HttpHeaders.IF_NONE_MATCH, EntityTags.of(item2.getVersion(), item2)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, EntityTags.of(item2.getVersion(), item2)))
+                .andExpect(content().string(""));
+    }
+
     @Test
     @SneakyThrows
     public void testSearch() {
@@ -165,8 +225,9 @@ public class ItemControllerTest {
                 .name("Палатка")
                 .description("Палатка двухместная.")
                 .available(true)
+                .version(4L)
                 .build();
-        when(itemService.update(any(Item.class), anyLong()))
+        when(itemService.update(any(Item.class), anyLong(), isNull()))
                 .thenReturn(newItem);
         mockMvc.perform(patch("/items/1")
                         .header("X-Sharer-User-Id", "1")
@@ -176,12 +237,26 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.id").value(newItem.getId()))
                 .andExpect(jsonPath("$.name").value(newItem.getName()))
                 .andExpect(jsonPath("$.description").value(newItem.getDescription()))
-                .andExpect(jsonPath("$.available").value(newItem.getAvailable()));
+                .andExpect(jsonPath("$.available").value(newItem.getAvailable()))
+                .andExpect(header().string(HttpHeaders.ETAG, EntityTags.of(4L, ItemMapper.toItemDto(newItem))));
         verify(itemService, only())
-                .update(any(Item.class), anyLong());
+                .update(any(Item.class), anyLong(), isNull());
         verifyNoMoreInteractions(itemService);
     }
 
+    @Test
+    @SneakyThrows
+    public void testUpdateWithStaleETag() {
+        when(itemService.update(any(Item.class), anyLong(), eq("\"stale\"")))
+                .thenThrow(new PreconditionFailedException("предмет изменён другим запросом:1"));
+        mockMvc.perform(patch("/items/1")
+                        .header("X-Sharer-User-Id", "1")
+                        .header(HttpHeaders.IF_MATCH, "\"stale\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item2)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @SneakyThrows
     public void testAddComment() {
@@ -213,4 +288,56 @@ public class ItemControllerTest {
         mockMvc.perform(delete("/items/1"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @SneakyThrows
+    @SuppressWarnings("unchecked")
+    public void testGetStatus() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        doAnswer(invocation -> {
+            Consumer<ItemStatusDto> consumer = invocation.getArgument(1);
+            consumer.accept(ItemStatusDto.builder()
+                    .itemId(1L)
+                    .name("Лопата")
+                    .available(true)
+                    .currentBooking(BookingForItemDto.builder()
+                            .id(5L)
+                            .start(start)
+                            .end(start.plusDays(1))
+                            .bookerId(2L)
+                            .build())
+                    .utilisation(0.5)
+                    .build());
+            consumer.accept(ItemStatusDto.builder()
+                    .itemId(2L)
+                    .name("Дрель")
+                    .available(true)
+                    .utilisation(0.0)
+                    .build());
+            return null;
+        }).when(itemService).getStatus(eq(1L), any(Consumer.class));
+        mockMvc.perform(get("/items/status")
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].itemId").value(1))
+                .andExpect(jsonPath("$[0].name").value("Лопата"))
+                .andExpect(jsonPath("$[0].currentBooking.id").value(5))
+                .andExpect(jsonPath("$[0].currentBooking.start").value("2030-01-01T00:00:00"))
+                .andExpect(jsonPath("$[0].utilisation").value(0.5))
+                .andExpect(jsonPath("$[1].itemId").value(2))
+                .andExpect(jsonPath("$[1].currentBooking").isEmpty());
+    }
+
+    @Test
+    @SneakyThrows
+    @SuppressWarnings("unchecked")
+    public void testGetStatusWithIncorrectUser() {
+        doThrow(new NotFoundException("пользователь не найден id:99"))
+                .when(itemService).getStatus(eq(99L), any(Consumer.class));
+        mockMvc.perform(get("/items/status")
+                        .header("X-Sharer-User-Id", "99"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
 }
@@ -6,13 +6,20 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemStatus;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @DataJpaTest
 public class ItemRepositoryTest {
@@ -42,4 +49,131 @@ public class ItemRepositoryTest {
         assertEquals(currentList.get(0).getName(), item.getName());
 
     }
+
+    @Test
+    public void testSearchSkipsUnavailableItems() {
+        User user = User.builder()
+                .email("simple@id.ru")
+                .name("Dave")
+                .build();
+        entityManager.persist(user);
+        Item item = Item.builder()
+                .name("Ручка Erich Krause")
+                .description("Пишет синим.")
+                .available(false)
+                .owner(user)
+                .build();
+        entityManager.persist(item);
+        Pageable page = PageRequest.of(0, 20);
+        List<Item> currentList = itemRepository.search("erich", page);
+        assertEquals(currentList.size(), 0);
+    }
+
+    @Test
+    public void testStreamStatusByOwnerId() {
+        LocalDateTime now = LocalDateTime.of(2030, 1, 31, 12, 0);
+        User owner = User.builder()
+                .email("owner@id.ru")
+                .name("Dave")
+                .build();
+        entityManager.persist(owner);
+        User booker = User.builder()
+                .email("booker@id.ru")
+                .name("Danil")
+                .build();
+        entityManager.persist(booker);
+        Item shovel = Item.builder()
+                .name("Лопата")
+                .description("Лопата Деда.")
+                .available(true)
+                .owner(owner)
+                .build();
+        entityManager.persist(shovel);
+        Item drill = Item.builder()
+                .name("Дрель")
+                .description("Ручная дрель")
+                .available(true)
+                .owner(owner)
+                .build();
+        entityManager.persist(drill);
+        persistBooking(shovel, booker, now.minusDays(10), now.minusDays(9), BookingStatus.APPROVED);
+        Booking current = persistBooking(shovel, booker, now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED);
+        Booking next = persistBooking(shovel, booker, now.plusDays(2), now.plusDays(3), BookingStatus.APPROVED);
+        persistBooking(shovel, booker, now.plusDays(1), now.plusDays(2), BookingStatus.REJECTED);
+        persistBooking(drill, booker, now.minusDays(40), now.minusDays(35), BookingStatus.APPROVED);
+
+        List<ItemStatus> statuses;
+        try (Stream<ItemStatus> stream = itemRepository.streamStatusByOwnerId(owner.getId(), now, now.minusDays(30))) {
+            statuses = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(statuses.size(), 2);
+        ItemStatus shovelStatus = statuses.get(0);
+        assertEquals(shovelStatus.getItemId(), shovel.getId());
+        assertEquals(shovelStatus.getCurrentBookingId(), current.getId());
+        assertEquals(shovelStatus.getCurrentBookerId(), booker.getId());
+        assertEquals(shovelStatus.getNextBookingId(), next.getId());
+        assertEquals(shovelStatus.getNextStart(), next.getStart());
+        assertEquals(shovelStatus.getBookedSeconds(), 2 * 24 * 60 * 60.0);
+        ItemStatus drillStatus = statuses.get(1);
+        assertEquals(drillStatus.getItemId(), drill.getId());
+        assertNull(drillStatus.getCurrentBookingId());
+        assertNull(drillStatus.getNextBookingId());
+        assertEquals(drillStatus.getBookedSeconds(), 0.0);
+    }
+
+    @Test
+    public void testFindIdsOwnedOrBookedBy() {
+        LocalDateTime now = LocalDateTime.of(2030, 1, 31, 12, 0);
+        User owner = entityManager.persist(User.builder()
+                .email("owner@id.ru")
+                .name("Dave")
+                .build());
+        User booker = entityManager.persist(User.builder()
+                .email("booker@id.ru")
+                .name("Danil")
+                .build());
+        Item owned = entityManager.persist(Item.builder()
+                .name("Лопата")
+                .description("Лопата Деда.")
+                .available(true)
+                .owner(booker)
+                .build());
+        Item booked = entityManager.persist(Item.builder()
+                .name("Дрель")
+                .description("Ручная дрель")
+                .available(true)
+                .owner(owner)
+                .build());
+        Item bookedBefore = entityManager.persist(Item.builder()
+                .name("Пила")
+                .description("Ножовка")
+                .available(true)
+                .owner(owner)
+                .build());
+        Item rejected = entityManager.persist(Item.builder()
+                .name("Молоток")
+                .description("Большой")
+                .available(true)
+                .owner(owner)
+                .build());
+        persistBooking(booked, booker, now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED);
+        persistBooking(booked, booker, now.plusDays(2), now.plusDays(3), BookingStatus.APPROVED);
+        persistBooking(bookedBefore, booker, now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED);
+        persistBooking(rejected, booker, now.plusDays(1), now.plusDays(2), BookingStatus.REJECTED);
+
+        List<Long> ids = itemRepository.findIdsOwnedOrBookedBy(booker.getId(), now);
+
+        assertEquals(ids.stream().sorted().collect(Collectors.toList()), List.of(owned.getId(), booked.getId()));
+    }
+
+    private Booking persistBooking(Item item, User booker, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return entityManager.persist(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
 }
@@ -6,31 +6,52 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.etag.EntityTags;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.PermissionException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
+import ru.practicum.shareit.item.dto.AvailabilityPeriodDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemStatusDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemStatus;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.service.ItemSearchService;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.purge.model.PurgeJob;
+import ru.practicum.shareit.purge.model.PurgeTarget;
+import ru.practicum.shareit.purge.repository.PurgeJobRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserIdRegistry;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,11 +61,19 @@ public class ItemServiceTest {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private UserIdRegistry userIdRegistry;
+    @Mock
+    private ItemAvailabilityIndex itemAvailabilityIndex;
+    @Mock
     private BookingRepository bookingRepository;
     @Mock
     private ItemRequestRepository itemRequestRepository;
     @Mock
     private CommentRepository commentRepository;
+    @Mock
+    private ItemSearchService itemSearchService;
+    @Mock
+    private PurgeJobRepository purgeJobRepository;
     @InjectMocks
     private ItemServiceImpl itemService;
     private static User user;
@@ -98,15 +127,15 @@ public class ItemServiceTest {
 
     @Test
     public void testGetAllByUser() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
         when(itemRepository.findAllByOwnerId(anyLong(), any()))
                 .thenReturn(List.of(item));
-        when(bookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(any(), any(), any()))
-                .thenReturn(null);
-        when(bookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(any(), any(), any()))
-                .thenReturn(null);
-        when(commentRepository.findAllByItemId(anyLong()))
+        when(bookingRepository.findNextByItemIds(anyCollection(), any(), anyString()))
+                .thenReturn(Collections.emptyList());
+        when(bookingRepository.findLastByItemIds(anyCollection(), any(), anyString()))
+                .thenReturn(Collections.emptyList());
+        when(commentRepository.findAllByItemIdIn(anyCollection()))
                 .thenReturn(Collections.emptyList());
         List<ItemDto> currentList = itemService.getAllByUser(1L, 0, 20);
         assertEquals(currentList.size(), 1);
@@ -118,9 +147,9 @@ public class ItemServiceTest {
     public void testGet() {
         when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.of(item2));
-        when(bookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(any(), any(), any()))
+        when(bookingRepository.findFirstByItemIdAndStartAfterAndStatusAndBookerDeletedAtIsNullOrderByStartAsc(any(), any(), any()))
                 .thenReturn(null);
-        when(bookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(any(), any(), any()))
+        when(bookingRepository.findFirstByItemIdAndStartBeforeAndStatusAndBookerDeletedAtIsNullOrderByStartDesc(any(), any(), any()))
                 .thenReturn(null);
         when(commentRepository.findAllByItemId(anyLong()))
                 .thenReturn(Collections.emptyList());
@@ -135,9 +164,9 @@ public class ItemServiceTest {
     public void testGetWithLastBooking() {
         when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.of(item2));
-        when(bookingRepository.findFirstByItemIdAndStartAfterAndStatusOrderByStartAsc(any(), any(), any()))
+        when(bookingRepository.findFirstByItemIdAndStartAfterAndStatusAndBookerDeletedAtIsNullOrderByStartAsc(any(), any(), any()))
                 .thenReturn(null);
-        when(bookingRepository.findFirstByItemIdAndStartBeforeAndStatusOrderByStartDesc(any(), any(), any()))
+        when(bookingRepository.findFirstByItemIdAndStartBeforeAndStatusAndBookerDeletedAtIsNullOrderByStartDesc(any(), any(), any()))
                 .thenReturn(Booking.builder()
                         .id(1L)
                         .start(LocalDateTime.now().minusMinutes(300))
@@ -182,7 +211,7 @@ public class ItemServiceTest {
     public void testAddWithRequest() {
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.of(user2));
-        when(itemRequestRepository.findById(anyLong()))
+        when(itemRequestRepository.findActiveById(anyLong()))
                 .thenReturn(Optional.of(itemRequest));
         when(itemRepository.save(any(Item.class)))
                 .thenReturn(item2);
@@ -201,7 +230,7 @@ public class ItemServiceTest {
                 .thenReturn(Optional.of(user));
         when(itemRepository.save(any(Item.class)))
                 .thenReturn(item);
-        Item currentItem = itemService.update(item, 1L);
+        Item currentItem = itemService.update(item, 1L, null);
         assertEquals(currentItem.getId(), item.getId());
         assertEquals(currentItem.getName(), item.getName());
         assertEquals(currentItem.getAvailable(), item.getAvailable());
@@ -212,13 +241,49 @@ public class ItemServiceTest {
     public void testUpdateWithIncorrectUser() {
         when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.of(item));
-        assertThrows(PermissionException.class, () -> itemService.update(item, 2L));
+        assertThrows(PermissionException.class, () -> itemService.update(item, 2L, null));
 
     }
 
+    @Test
+    public void testUpdateWithStaleETag() {
+        when(itemRepository.findById(anyLong()))
+                .thenReturn(Optional.of(versionedItem(3L)));
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(user));
+        assertThrows(PreconditionFailedException.class, () -> itemService.update(item, 1L,
+                EntityTags.of(2L, ItemMapper.toItemDto(versionedItem(2L)))));
+        verify(itemRepository, never()).save(any(Item.class));
+    }
+
+    @Test
+    public void testUpdateIgnoresBookingAndCommentChanges() {
+        Item currentItem = versionedItem(3L);
+        when(itemRepository.findById(anyLong()))
+                .thenReturn(Optional.of(currentItem));
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(user));
+        when(itemRepository.save(any(Item.class)))
+                .thenReturn(currentItem);
+        ItemDto staleView = ItemMapper.toItemDto(currentItem);
+        staleView.setComments(List.of());
+        assertEquals(currentItem, itemService.update(item, 1L, EntityTags.of(3L, staleView)));
+    }
+
+    private Item versionedItem(Long version) {
+        return Item.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .owner(user)
+                .version(version)
+                .build();
+    }
+
     @Test
     public void testSearch() {
-        when(itemRepository.search(anyString(), any()))
+        when(itemSearchService.search(anyString(), any()))
                 .thenReturn(List.of(item));
         List<Item> currentList = itemService.search("ручка", 0, 20);
         assertEquals(currentList.size(), 1);
@@ -258,4 +323,96 @@ public class ItemServiceTest {
         assertThrows(BadRequestException.class, () -> itemService.addComment(comment, 2L, 2L));
     }
 
+    @Test
+    public void testGetAvailability() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(7);
+        AvailabilityPeriodDto period = AvailabilityPeriodDto.builder()
+                .start(from.plusDays(1))
+                .end(from.plusDays(2))
+                .build();
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(itemRepository.existsById(anyLong()))
+                .thenReturn(true);
+        when(itemAvailabilityIndex.findBooked(1L, from, to))
+                .thenReturn(List.of(period));
+        ItemAvailabilityDto availability = itemService.getAvailability(1L, 1L, from, to);
+        assertEquals(availability.getItemId(), 1L);
+        assertFalse(availability.getAvailable());
+        assertEquals(availability.getBooked(), List.of(period));
+    }
+
+    @Test
+    public void testGetAvailabilityWithIncorrectPeriod() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(itemRepository.existsById(anyLong()))
+                .thenReturn(true);
+        assertThrows(BadRequestException.class, () -> itemService.getAvailability(1L, 1L, from, from));
+        assertThrows(BadRequestException.class, () -> itemService.getAvailability(1L, 1L, from, from.plusYears(2)));
+    }
+
+    @Test
+    public void testGetAvailabilityWithIncorrectItem() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(itemRepository.existsById(anyLong()))
+                .thenReturn(false);
+        assertThrows(NotFoundException.class, () -> itemService.getAvailability(99L, 1L, from, from.plusDays(1)));
+    }
+
+    @Test
+    public void testGetStatus() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 0, 0);
+        Map<String, Object> row = new HashMap<>();
+        row.put("itemId", 1L);
+        row.put("name", "Лопата");
+        row.put("available", true);
+        row.put("currentBookingId", 5L);
+        row.put("currentBookerId", 2L);
+        row.put("currentStart", start);
+        row.put("currentEnd", start.plusDays(1));
+        row.put("bookedSeconds", 3 * 24 * 60 * 60.0);
+        ItemStatus status = new SpelAwareProxyProjectionFactory().createProjection(ItemStatus.class, row);
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(itemRepository.streamStatusByOwnerId(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Stream.of(status));
+        List<ItemStatusDto> statuses = new ArrayList<>();
+        itemService.getStatus(1L, statuses::add);
+        assertEquals(statuses.size(), 1);
+        assertEquals(statuses.get(0).getItemId(), 1L);
+        assertEquals(statuses.get(0).getCurrentBooking().getId(), 5L);
+        assertEquals(statuses.get(0).getCurrentBooking().getBookerId(), 2L);
+        assertNull(statuses.get(0).getNextBooking());
+        assertEquals(statuses.get(0).getUtilisation(), 0.1);
+    }
+
+    @Test
+    public void testGetStatusWithIncorrectUser() {
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(false);
+        assertThrows(NotFoundException.class, () -> itemService.getStatus(99L, status -> {
+        }));
+    }
+
+    @Test
+    public void testDeleteMarksItemForPurge() {
+        when(itemRepository.softDeleteById(eq(1L), any()))
+                .thenReturn(1);
+        itemService.delete(1L);
+        verify(purgeJobRepository).save(argThat(job -> job.getTarget() == PurgeTarget.ITEM && job.getTargetId() == 1L));
+        verify(itemAvailabilityIndex).evict(1L);
+    }
+
+    @Test
+    public void testDeleteWithIncorrectItem() {
+        when(itemRepository.softDeleteById(eq(99L), any()))
+                .thenReturn(0);
+        assertThrows(NotFoundException.class, () -> itemService.delete(99L));
+        verify(purgeJobRepository, never()).save(any(PurgeJob.class));
+    }
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.purge;
+
+import org.hibernate.dialect.PostgreSQL10Dialect;
+
+// H2 2.1 does not parse SKIP LOCKED, so the test database gets a plain FOR UPDATE instead
+public class H2PostgreSQLDialect extends PostgreSQL10Dialect {
+
+    @Override
+    public String getForUpdateSkipLockedString() {
+        return getForUpdateString();
+    }
+
+    @Override
+    public String getForUpdateSkipLockedString(String aliases) {
+        return getForUpdateString(aliases);
+    }
+}
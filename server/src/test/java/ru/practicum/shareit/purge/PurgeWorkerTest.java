@@ -0,0 +1,283 @@
+package ru.practicum.shareit.purge;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.purge.model.PurgeJob;
+import ru.practicum.shareit.purge.model.PurgeTarget;
+import ru.practicum.shareit.purge.repository.PurgeJobRepository;
+import ru.practicum.shareit.purge.scheduler.PurgeWorker;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=ru.practicum.shareit.purge.H2PostgreSQLDialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PurgeWorkerTest {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private PurgeJobRepository purgeJobRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transaction;
+    private LocalDateTime now;
+    private User owner;
+    private User booker;
+    private Item item;
+    private Item otherItem;
+    private ItemRequest request;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transaction = new TransactionTemplate(transactionManager);
+        now = LocalDateTime.now().withNano(0);
+        owner = userRepository.save(User.builder()
+                .email("simple@id.ru")
+                .name("Dave")
+                .build());
+        booker = userRepository.save(User.builder()
+                .email("mail@id.ru")
+                .name("Danil")
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("Лопата")
+                .description("Лопата Деда.")
+                .available(true)
+                .owner(owner)
+                .build());
+        otherItem = itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Ручная дрель")
+                .available(true)
+                .owner(booker)
+                .build());
+        for (int i = 0; i < 5; i++) {
+            bookingRepository.save(Booking.builder()
+                    .item(item)
+                    .booker(booker)
+                    .start(now.plusDays(i * 2 + 1))
+                    .end(now.plusDays(i * 2 + 2))
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+        bookingRepository.save(Booking.builder()
+                .item(otherItem)
+                .booker(owner)
+                .start(now.plusDays(1))
+                .end(now.plusDays(2))
+                .status(BookingStatus.APPROVED)
+                .build());
+        commentRepository.save(Comment.builder()
+                .text("Лопата топ")
+                .author(booker)
+                .item(item)
+                .created(now)
+                .build());
+        request = itemRequestRepository.save(ItemRequest.builder()
+                .description("Нужна лопата")
+                .requester(owner)
+                .created(now)
+                .build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM purge_jobs");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    public void testSoftDeletedUserIsHiddenFromReads() {
+        transaction.executeWithoutResult(status -> {
+            userRepository.softDeleteById(owner.getId(), now);
+            itemRepository.softDeleteByOwnerId(owner.getId(), now);
+        });
+
+        assertFalse(userRepository.findById(owner.getId()).isPresent());
+        assertFalse(itemRepository.findById(item.getId()).isPresent());
+        assertFalse(itemRequestRepository.findActiveById(request.getId()).isPresent());
+        assertTrue(itemRequestRepository.findAllByRequesterIdNotOrderByCreatedDesc(booker.getId(), PageRequest.of(0, 20))
+                .isEmpty());
+        assertEquals(List.of(booker.getId()), userRepository.findAllIds());
+        assertTrue(itemRepository.search("лопата", PageRequest.of(0, 20)).isEmpty());
+        assertTrue(commentRepository.findAllByItemId(item.getId()).isEmpty());
+        assertTrue(bookingRepository.findAllByBookerIdAndState(booker.getId(), BookingState.ALL, now, 0, 20)
+                .isEmpty());
+        assertTrue(bookingRepository.findAllByItemOwnerIdAndState(booker.getId(), BookingState.ALL, now, 0, 20)
+                .isEmpty());
+        assertTrue(bookingRepository.findWaiting().isEmpty());
+        assertTrue(bookingRepository.findActiveByItemId(otherItem.getId(), now).isEmpty());
+    }
+
+    @Test
+    public void testPurgeUserInChunks() {
+        transaction.executeWithoutResult(status -> {
+            userRepository.softDeleteById(owner.getId(), now);
+            itemRepository.softDeleteByOwnerId(owner.getId(), now);
+        });
+        jdbcTemplate.update("UPDATE items SET request_id = ? WHERE id = ?", request.getId(), otherItem.getId());
+        PurgeJob job = purgeJobRepository.save(PurgeJob.of(PurgeTarget.USER, owner.getId(), now));
+
+        new PurgeWorker(purgeJobRepository, jdbcTemplate, transactionManager, 2, 10, Duration.ZERO).purge(job);
+
+        assertEquals(0, count("SELECT COUNT(*) FROM users WHERE id = ?", owner.getId()));
+        assertEquals(0, count("SELECT COUNT(*) FROM items WHERE owner_id = ?", owner.getId()));
+        assertEquals(0, count("SELECT COUNT(*) FROM bookings WHERE item_id = ? OR booker_id = ?",
+                item.getId(), owner.getId()));
+        assertEquals(0, count("SELECT COUNT(*) FROM comments WHERE item_id = ?", item.getId()));
+        assertEquals(0, count("SELECT COUNT(*) FROM requests WHERE requester_id = ?", owner.getId()));
+        assertEquals(1, count("SELECT COUNT(*) FROM users WHERE id = ?", booker.getId()));
+        assertEquals(1, count("SELECT COUNT(*) FROM items WHERE id = ? AND request_id IS NULL", otherItem.getId()));
+        assertFalse(purgeJobRepository.findById(job.getId()).isPresent());
+    }
+
+    @Test
+    public void testPurgeUserRemovesBookingTransitions() {
+        // on PostgreSQL the partitioned bookings table cannot be referenced, so nothing cascades to transitions
+        jdbcTemplate.execute("ALTER TABLE booking_transitions DROP CONSTRAINT fk_booking_transitions_to_bookings");
+        try {
+            jdbcTemplate.update("INSERT INTO booking_transitions (booking_id, from_status, to_status, changed_at) " +
+                    "SELECT id, 'WAITING', status, ? FROM bookings", now);
+            transaction.executeWithoutResult(status -> {
+                userRepository.softDeleteById(owner.getId(), now);
+                itemRepository.softDeleteByOwnerId(owner.getId(), now);
+            });
+            PurgeJob job = purgeJobRepository.save(PurgeJob.of(PurgeTarget.USER, owner.getId(), now));
+
+            new PurgeWorker(purgeJobRepository, jdbcTemplate, transactionManager, 2, 10, Duration.ZERO).purge(job);
+
+            assertEquals(0, count("SELECT COUNT(*) FROM booking_transitions"));
+        } finally {
+            jdbcTemplate.update("DELETE FROM booking_transitions");
+            jdbcTemplate.execute("ALTER TABLE booking_transitions ADD CONSTRAINT fk_booking_transitions_to_bookings " +
+                    "FOREIGN KEY (booking_id) REFERENCES bookings(id) ON DELETE CASCADE");
+        }
+    }
+
+    @Test
+    public void testPurgeRecordsProgressAndResumes() {
+        transaction.executeWithoutResult(status -> itemRepository.softDeleteById(item.getId(), now));
+        PurgeJob job = purgeJobRepository.save(PurgeJob.of(PurgeTarget.ITEM, item.getId(), now));
+        JdbcTemplate failingOnComments = new JdbcTemplate(dataSource) {
+            @Override
+            public int update(String sql, Object... args) {
+                if (sql.startsWith("DELETE FROM comments")) {
+                    throw new IllegalStateException("comments are locked");
+                }
+                return super.update(sql, args);
+            }
+        };
+
+        new PurgeWorker(purgeJobRepository, failingOnComments, transactionManager, 2, 10, Duration.ZERO).purgeAll();
+
+        PurgeJob progress = purgeJobRepository.findById(job.getId()).orElseThrow();
+        assertEquals(4, progress.getStep());
+        assertEquals(5L, progress.getPurgedRows());
+        assertEquals(0, count("SELECT COUNT(*) FROM bookings WHERE item_id = ?", item.getId()));
+        assertEquals(1, count("SELECT COUNT(*) FROM comments WHERE item_id = ?", item.getId()));
+
+        new PurgeWorker(purgeJobRepository, jdbcTemplate, transactionManager, 2, 10, Duration.ZERO).purgeAll();
+
+        assertEquals(0, count("SELECT COUNT(*) FROM comments WHERE item_id = ?", item.getId()));
+        assertEquals(0, count("SELECT COUNT(*) FROM items WHERE id = ?", item.getId()));
+        assertTrue(purgeJobRepository.findAll().isEmpty());
+    }
+
+    @Test
+    public void testFailingJobIsRetriedWithBackoff() {
+        transaction.executeWithoutResult(status -> {
+            userRepository.softDeleteById(owner.getId(), now);
+            itemRepository.softDeleteByOwnerId(owner.getId(), now);
+        });
+        PurgeJob failing = purgeJobRepository.save(PurgeJob.of(PurgeTarget.USER, owner.getId(), now));
+        PurgeJob next = purgeJobRepository.save(PurgeJob.of(PurgeTarget.ITEM, item.getId(), now));
+        JdbcTemplate failingOnOwner = new JdbcTemplate(dataSource) {
+            @Override
+            public int update(String sql, Object... args) {
+                if (sql.contains("owner_id")) {
+                    throw new IllegalStateException("owner is locked");
+                }
+                return super.update(sql, args);
+            }
+        };
+
+        new PurgeWorker(purgeJobRepository, failingOnOwner, transactionManager, 2, 10, Duration.ofHours(1))
+                .purgeAll();
+
+        PurgeJob retry = purgeJobRepository.findById(failing.getId()).orElseThrow();
+        assertEquals(1, retry.getAttempts());
+        assertTrue(retry.getNextAttemptAt().isAfter(now.plusMinutes(59)));
+        assertFalse(purgeJobRepository.findById(next.getId()).isPresent());
+
+        new PurgeWorker(purgeJobRepository, jdbcTemplate, transactionManager, 2, 10, Duration.ofHours(1))
+                .purgeAll();
+
+        assertEquals(1, purgeJobRepository.findById(failing.getId()).orElseThrow().getAttempts());
+        assertEquals(1, count("SELECT COUNT(*) FROM users WHERE id = ?", owner.getId()));
+    }
+
+    @Test
+    public void testJobIsParkedAfterMaxAttempts() {
+        transaction.executeWithoutResult(status -> itemRepository.softDeleteById(item.getId(), now));
+        PurgeJob job = purgeJobRepository.save(PurgeJob.of(PurgeTarget.ITEM, item.getId(), now));
+        JdbcTemplate failing = new JdbcTemplate(dataSource) {
+            @Override
+            public int update(String sql, Object... args) {
+                throw new IllegalStateException("bookings are locked");
+            }
+        };
+        PurgeWorker worker = new PurgeWorker(purgeJobRepository, failing, transactionManager, 2, 2, Duration.ZERO);
+
+        worker.purgeAll();
+        worker.purgeAll();
+        worker.purgeAll();
+        new PurgeWorker(purgeJobRepository, jdbcTemplate, transactionManager, 2, 2, Duration.ZERO).purgeAll();
+
+        assertEquals(2, purgeJobRepository.findById(job.getId()).orElseThrow().getAttempts());
+        assertEquals(5, count("SELECT COUNT(*) FROM bookings WHERE item_id = ?", item.getId()));
+    }
+
+    private long count(String sql, Object... args) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, args);
+        return count == null ? 0 : count;
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -22,6 +23,7 @@ import java.util.List;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -74,19 +76,37 @@ public class ItemRequestControllerTest {
     @Test
     @SneakyThrows
     public void testGetAllByOwner() {
-        when(itemRequestService.getAllByOwner(1L))
+        when(itemRequestService.getAllByOwner(1L, null, 20))
                 .thenReturn(itemRequestList);
         mockMvc.perform(get("/requests")
                         .header("X-Sharer-User-Id", "1"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$[0].id").value(itemRequest1.getId()))
                 .andExpect(jsonPath("$[1].id").value(itemRequest2.getId()));
         verify(itemRequestService, only())
-                .getAllByOwner(1L);
+                .getAllByOwner(1L, null, 20);
         verifyNoMoreInteractions(itemRequestService);
 
     }
 
+    @Test
+    @SneakyThrows
+    public void testGetAllByOwnerWithCursor() {
+        PageCursor cursor = PageCursor.of(itemRequest1.getCreated(), itemRequest1.getId());
+        when(itemRequestService.getAllByOwner(1L, cursor, 2))
+                .thenReturn(List.of(itemRequest2, itemRequestWithItem));
+        mockMvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", "1")
+                        .param("size", "2")
+                        .param("cursor", cursor.encode()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER,
+                        PageCursor.of(itemRequestWithItem.getCreated(), itemRequestWithItem.getId()).encode()))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].items[0].id").value(1L));
+    }
+
     @Test
     @SneakyThrows
     public void testGetWithItem() {
@@ -6,13 +6,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserIdRegistry;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -22,6 +25,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 
@@ -31,6 +35,8 @@ public class ItemRequestServiceTest {
     private ItemRequestRepository itemRequestRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private UserIdRegistry userIdRegistry;
     @InjectMocks
     private ItemRequestServiceImpl itemRequestService;
     private static User user;
@@ -74,8 +80,8 @@ public class ItemRequestServiceTest {
 
     @Test
     public void testGetAll() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
         when(itemRequestRepository.findAllByRequesterIdNotOrderByCreatedDesc(anyLong(), any()))
                 .thenReturn(itemRequestList);
         List<ItemRequest> currentList = itemRequestService.getAll(1L, 0, 20);
@@ -88,11 +94,11 @@ public class ItemRequestServiceTest {
 
     @Test
     public void testGetAllByOwner() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
-        when(itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(anyLong()))
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(itemRequestRepository.findAllByRequesterIdOrderByCreatedDescIdDesc(anyLong(), any()))
                 .thenReturn(itemRequestList);
-        List<ItemRequest> currentList = itemRequestService.getAllByOwner(1L);
+        List<ItemRequest> currentList = itemRequestService.getAllByOwner(1L, null, 20);
 
         assertEquals(currentList.get(0).getId(), itemRequest.getId());
         assertEquals(currentList.get(1).getId(), itemRequest2.getId());
@@ -103,16 +109,35 @@ public class ItemRequestServiceTest {
 
     @Test
     public void testGetAllByOwnerWithIncorrectId() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
-        assertThrows(NotFoundException.class, () -> itemRequestService.getAllByOwner(1L));
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(false);
+        assertThrows(NotFoundException.class, () -> itemRequestService.getAllByOwner(1L, null, 20));
+    }
+
+    @Test
+    public void testGetAllByOwnerWithCursor() {
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(itemRequestRepository.findAllByRequesterIdBefore(eq(1L), eq(itemRequest.getCreated()), eq(itemRequest.getId()), any()))
+                .thenReturn(List.of(itemRequest2));
+        List<ItemRequest> currentList = itemRequestService.getAllByOwner(1L,
+                PageCursor.of(itemRequest.getCreated(), itemRequest.getId()), 20);
+        assertEquals(currentList, List.of(itemRequest2));
+        verify(itemRequestRepository).findAllWithItemsByIdIn(List.of(itemRequest2.getId()));
+    }
+
+    @Test
+    public void testGetAllByOwnerWithIncorrectCursor() {
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        assertThrows(BadRequestException.class, () -> itemRequestService.getAllByOwner(1L, PageCursor.of(null, 1L), 20));
     }
 
     @Test
     public void testGet() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
-        when(itemRequestRepository.findById(anyLong()))
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(itemRequestRepository.findActiveById(anyLong()))
                 .thenReturn(Optional.of(itemRequestWithItem));
         ItemRequest currentItemRequest = itemRequestService.get(1L, 1L);
 
@@ -122,9 +147,9 @@ public class ItemRequestServiceTest {
 
     @Test
     public void testGetWithIncorrectItemRequestId() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
-        when(itemRequestRepository.findById(anyLong()))
+        when(userIdRegistry.exists(anyLong()))
+                .thenReturn(true);
+        when(itemRequestRepository.findActiveById(anyLong()))
                 .thenReturn(Optional.empty());
         assertThrows(NotFoundException.class, () -> itemRequestService.get(2L, 1L));
 
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.request;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserIdRegistry;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+public class ItemRequestStatementCountTest {
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private ItemRequestService itemRequestService;
+    private Statistics statistics;
+    private User requester;
+    private User other;
+
+    @BeforeEach
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        requester = entityManager.persist(User.builder()
+                .email("request@id.ru")
+                .name("Dima")
+                .build());
+        other = entityManager.persist(User.builder()
+                .email("other@id.ru")
+                .name("Dave")
+                .build());
+        for (int i = 0; i < 5; i++) {
+            ItemRequest request = entityManager.persist(ItemRequest.builder()
+                    .description("Нужна лопата " + i)
+                    .requester(requester)
+                    .created(now.minusHours(i / 2))
+                    .build());
+            for (int j = 0; j < 2; j++) {
+                User owner = entityManager.persist(User.builder()
+                        .email("owner" + i + j + "@id.ru")
+                        .name("Owner" + i + j)
+                        .build());
+                entityManager.persist(Item.builder()
+                        .name("Лопата " + i + j)
+                        .description("Лопата Деда.")
+                        .available(true)
+                        .owner(owner)
+                        .request(request)
+                        .build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        UserIdRegistry userIdRegistry = new UserIdRegistry(userRepository, transactionManager);
+        userIdRegistry.warmUp();
+        itemRequestService = new ItemRequestServiceImpl(itemRequestRepository, userRepository, userIdRegistry);
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testGetAllLoadsItemsInOneStatement() {
+        List<ItemRequestDto> requests = assertStatementCount(() -> itemRequestService.getAll(other.getId(), 0, 20));
+        assertEquals(5, requests.size());
+    }
+
+    @Test
+    public void testGetAllByOwnerPagesByCursor() {
+        List<ItemRequestDto> firstPage = assertStatementCount(() -> itemRequestService
+                .getAllByOwner(requester.getId(), null, 3));
+        ItemRequestDto last = firstPage.get(firstPage.size() - 1);
+        statistics.clear();
+        List<ItemRequestDto> secondPage = assertStatementCount(() -> itemRequestService
+                .getAllByOwner(requester.getId(), PageCursor.of(last.getCreated(), last.getId()), 3));
+
+        assertEquals(3, firstPage.size());
+        assertEquals(2, secondPage.size());
+        assertEquals(5, firstPage.stream().map(ItemRequestDto::getId).distinct().count()
+                + secondPage.stream().map(ItemRequestDto::getId).distinct().count());
+        assertEquals(0, secondPage.stream().filter(firstPage::contains).count());
+    }
+
+    private List<ItemRequestDto> assertStatementCount(Supplier<List<ItemRequest>> query) {
+        List<ItemRequestDto> requests = query.get().stream()
+                .map(ItemRequestMapper::toItemRequestDto)
+                .collect(Collectors.toList());
+        requests.forEach(request -> assertEquals(2, request.getItems().size()));
+        assertEquals(3, statistics.getPrepareStatementCount());
+        return requests;
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.orm.jpa.HibernateMetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "shareit.hibernate.statistics=true"
+})
+@ImportAutoConfiguration({
+        MetricsAutoConfiguration.class,
+        CompositeMeterRegistryAutoConfiguration.class,
+        SimpleMetricsExportAutoConfiguration.class,
+        HibernateMetricsAutoConfiguration.class
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UserCacheMetricsTest {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testStatisticsFlagPublishesCacheMeters() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        User user = userRepository.save(User.builder()
+                .email("metrics@id.ru")
+                .name("Dave")
+                .build());
+        transaction.executeWithoutResult(status -> userRepository.findById(user.getId()));
+        double hits = cacheRequests("hit");
+        double misses = cacheRequests("miss");
+
+        transaction.executeWithoutResult(status -> userRepository.findById(user.getId()));
+
+        assertEquals(cacheRequests("hit"), hits + 1);
+        assertEquals(cacheRequests("miss"), misses);
+
+        userRepository.deleteById(user.getId());
+    }
+
+    private double cacheRequests(String result) {
+        return meterRegistry.get("hibernate.second.level.cache.requests")
+                .tag("region", "users")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
@@ -0,0 +1,115 @@
+package ru.practicum.shareit.user;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemAvailabilityIndex;
+import ru.practicum.shareit.purge.repository.PurgeJobRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserIdRegistry;
+import ru.practicum.shareit.user.service.UserServiceImpl;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UserCacheTest {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private PurgeJobRepository purgeJobRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    public void testFindByIdHitsCache() {
+        User user = userRepository.save(User.builder()
+                .email("simple@id.ru")
+                .name("Dave")
+                .build());
+        transaction.executeWithoutResult(status -> userRepository.findById(user.getId()));
+        statistics.clear();
+
+        User cachedUser = transaction.execute(status -> userRepository.findById(user.getId()).orElseThrow());
+        assertEquals(cachedUser.getName(), user.getName());
+        assertEquals(statistics.getSecondLevelCacheHitCount(), 1);
+        assertEquals(statistics.getPrepareStatementCount(), 0);
+
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    public void testUpdateRefreshesCache() {
+        User user = userRepository.save(User.builder()
+                .email("mail@id.ru")
+                .name("Danil")
+                .build());
+        transaction.executeWithoutResult(status -> userRepository.findById(user.getId()));
+        transaction.executeWithoutResult(status -> userRepository.findById(user.getId()).orElseThrow()
+                .setName("Dima"));
+        statistics.clear();
+
+        User cachedUser = transaction.execute(status -> userRepository.findById(user.getId()).orElseThrow());
+        assertEquals(cachedUser.getName(), "Dima");
+        assertEquals(statistics.getPrepareStatementCount(), 0);
+
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    public void testDeleteUserEvictsOwnedItems() {
+        User owner = userRepository.save(User.builder()
+                .email("owner@id.ru")
+                .name("Dave")
+                .build());
+        Item item = itemRepository.save(Item.builder()
+                .name("Лопата")
+                .description("Лопата Деда.")
+                .available(true)
+                .owner(owner)
+                .build());
+        transaction.executeWithoutResult(status -> itemRepository.findById(item.getId()));
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+
+        transaction.executeWithoutResult(status -> new UserServiceImpl(userRepository, itemRepository, purgeJobRepository,
+                new UserIdRegistry(userRepository, transactionManager),
+                new ItemAvailabilityIndex(bookingRepository), transactionManager)
+                .delete(owner.getId()));
+
+        assertFalse(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+        assertFalse(itemRepository.findById(item.getId()).isPresent());
+    }
+}
@@ -7,15 +7,24 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.exception.PreconditionFailedException;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.user.dto.UserBatchResultDto;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -38,6 +47,7 @@ public class UserControllerTest {
                 .id(1L)
                 .email("simple@id.ru")
                 .name("Dave")
+                .version(1L)
                 .build();
         user2 = User.builder()
                 .id(2L)
@@ -50,10 +60,11 @@ public class UserControllerTest {
     @Test
     @SneakyThrows
     public void testGetAll() {
-        when(userService.getAll())
+        when(userService.getAll(null, 20))
                 .thenReturn(userList);
         mockMvc.perform(get("/users"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].id").value(user.getId()))
                 .andExpect(jsonPath("$[0].name").value(user.getName()))
@@ -62,10 +73,44 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$[1].name").value(user2.getName()))
                 .andExpect(jsonPath("$[1].email").value(user2.getEmail()));
         verify(userService, only())
-                .getAll();
+                .getAll(null, 20);
         verifyNoMoreInteractions(userService);
     }
 
+    @Test
+    @SneakyThrows
+    public void testGetAllWithCursor() {
+        PageCursor cursor = PageCursor.of(null, 1L);
+        when(userService.getAll(cursor, 1))
+                .thenReturn(List.of(user2));
+        mockMvc.perform(get("/users")
+                        .param("size", "1")
+                        .param("cursor", cursor.encode()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(PageCursor.NEXT_CURSOR_HEADER, PageCursor.of(null, user2.getId()).encode()))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(user2.getId()));
+    }
+
+    @Test
+    @SneakyThrows
+    @SuppressWarnings("unchecked")
+    public void testExport() {
+        doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(0);
+            userList.stream()
+                    .map(UserMapper::toUserDto)
+                    .forEach(consumer);
+            return null;
+        }).when(userService).export(any(Consumer.class));
+        mockMvc.perform(get("/users/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].email").value(user.getEmail()))
+                .andExpect(jsonPath("$[1].email").value(user2.getEmail()));
+    }
+
     @Test
     @SneakyThrows
     public void testGet() {
@@ -75,12 +120,35 @@ public class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(user.getId()))
                 .andExpect(jsonPath("$.name").value(user.getName()))
-                .andExpect(jsonPath("$.email").value(user.getEmail()));
+                .andExpect(jsonPath("$.email").value(user.getEmail()))
+                .andExpect(header().string(HttpHeaders.ETAG, EntityTags.of(user.getVersion(), UserMapper.toUserDto(user))));
         verify(userService, only())
                 .get(anyLong());
         verifyNoMoreInteractions(userService);
     }
 
+    @Test
+    @SneakyThrows
+    public void testGetNotModified() {
+        when(userService.get(anyLong()))
+                .thenReturn(user);
+        mockMvc.perform(get("/users/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, EntityTags.of(user.getVersion(), UserMapper.toUserDto(user))))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @SneakyThrows
+    public void testGetModified() {
+        when(userService.get(anyLong()))
+                .thenReturn(user);
+        mockMvc.perform(get("/users/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(user.getId()));
+    }
+
     @Test
     @SneakyThrows
     public void testAdd() {
@@ -98,6 +166,36 @@ public class UserControllerTest {
         verifyNoMoreInteractions(userService);
     }
 
+    @Test
+    @SneakyThrows
+    @SuppressWarnings("unchecked")
+    public void testAddAll() {
+        when(userService.addAll(any(List.class)))
+                .thenReturn(List.of(
+                        UserBatchResultDto.builder()
+                                .index(0)
+                                .user(UserMapper.toUserDto(user))
+                                .build(),
+                        UserBatchResultDto.builder()
+                                .index(1)
+                                .error(user2.getEmail() + " занять другим пользователем")
+                                .build()));
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                UserMapper.toUserDto(user), UserMapper.toUserDto(user2)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].user.id").value(user.getId()))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].user").isEmpty())
+                .andExpect(jsonPath("$[1].error").isNotEmpty());
+        verify(userService, only())
+                .addAll(any(List.class));
+        verifyNoMoreInteractions(userService);
+    }
+
     @Test
     @SneakyThrows
     public void testUpdate() {
@@ -105,8 +203,9 @@ public class UserControllerTest {
                 .id(1L)
                 .email("qwer@id.ru")
                 .name("Dave")
+                .version(2L)
                 .build();
-        when(userService.update(anyLong(), any(User.class)))
+        when(userService.update(anyLong(), any(User.class), isNull()))
                 .thenReturn(updateUser);
         mockMvc.perform(patch("/users/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -114,12 +213,25 @@ public class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.name").value(updateUser.getName()))
-                .andExpect(jsonPath("$.email").value(updateUser.getEmail()));
+                .andExpect(jsonPath("$.email").value(updateUser.getEmail()))
+                .andExpect(header().string(HttpHeaders.ETAG, EntityTags.of(2L, UserMapper.toUserDto(updateUser))));
         verify(userService, only())
-                .update(anyLong(), any(User.class));
+                .update(anyLong(), any(User.class), isNull());
         verifyNoMoreInteractions(userService);
     }
 
+    @Test
+    @SneakyThrows
+    public void testUpdateWithStaleETag() {
+        when(userService.update(anyLong(), any(User.class), eq("\"stale\"")))
+                .thenThrow(new PreconditionFailedException("пользователь изменён другим запросом id:1"));
+        mockMvc.perform(patch("/users/1")
+                        .header(HttpHeaders.IF_MATCH, "\"stale\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(UserMapper.toUserDto(user))))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @SneakyThrows
     public void testDelete() {
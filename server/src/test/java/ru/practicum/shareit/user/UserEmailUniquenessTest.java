@@ -0,0 +1,96 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.EmailBusyException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemAvailabilityIndex;
+import ru.practicum.shareit.purge.repository.PurgeJobRepository;
+import ru.practicum.shareit.user.dto.UserBatchResultDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserIdRegistry;
+import ru.practicum.shareit.user.service.UserServiceImpl;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class UserEmailUniquenessTest {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private PurgeJobRepository purgeJobRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private UserServiceImpl userService;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        userService = new UserServiceImpl(userRepository, itemRepository, purgeJobRepository,
+                new UserIdRegistry(userRepository, transactionManager),
+                new ItemAvailabilityIndex(bookingRepository), transactionManager);
+        user = userRepository.save(User.builder()
+                .email("simple@id.ru")
+                .name("Dave")
+                .build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testAddRejectsEmailInOtherCase() {
+        assertThrows(EmailBusyException.class, () -> userService.add(User.builder()
+                .email("Simple@ID.ru")
+                .name("Danil")
+                .build()));
+        assertEquals(1, userRepository.count());
+    }
+
+    @Test
+    public void testUpdateRejectsEmailInOtherCase() {
+        User other = userRepository.save(User.builder()
+                .email("mail@id.ru")
+                .name("Danil")
+                .build());
+        assertThrows(EmailBusyException.class, () -> userService.update(other.getId(), User.builder()
+                .email("SIMPLE@id.ru")
+                .build(), null));
+        assertEquals("mail@id.ru", userRepository.findById(other.getId()).orElseThrow().getEmail());
+    }
+
+    @Test
+    public void testAddAllKeepsAcceptedRows() {
+        List<UserBatchResultDto> results = userService.addAll(List.of(
+                User.builder().email("mail@id.ru").name("Danil").build(),
+                User.builder().email("SIMPLE@id.ru").name("Dima").build(),
+                User.builder().email("Mail@id.ru").name("Dima").build(),
+                User.builder().email("request@id.ru").name("Dima").build()));
+
+        assertNotNull(results.get(0).getUser());
+        assertNotNull(results.get(1).getError());
+        assertNotNull(results.get(2).getError());
+        assertNull(results.get(3).getError());
+        assertEquals(3, userRepository.count());
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserIdRegistry;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UserIdRegistryTest {
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @InjectMocks
+    private UserIdRegistry userIdRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        when(userRepository.findAllIds())
+                .thenReturn(List.of(1L, 3L));
+        userIdRegistry.warmUp();
+    }
+
+    @Test
+    public void testExistsWithUnknownIdSkipsDatabase() {
+        assertFalse(userIdRegistry.exists(2L));
+        assertFalse(userIdRegistry.exists(-1L));
+        assertFalse(userIdRegistry.exists(null));
+        verify(userRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    public void testExistsWithKnownId() {
+        when(userRepository.existsById(1L))
+                .thenReturn(true);
+        assertTrue(userIdRegistry.exists(1L));
+    }
+
+    @Test
+    public void testNegativeLookupKeepsBit() {
+        when(userRepository.existsById(3L))
+                .thenReturn(false, false, true);
+        assertFalse(userIdRegistry.exists(3L));
+        assertTrue(userIdRegistry.exists(3L));
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        userIdRegistry.add(2L);
+        when(userRepository.existsById(2L))
+                .thenReturn(true);
+        assertTrue(userIdRegistry.exists(2L));
+
+        userIdRegistry.remove(2L);
+        assertFalse(userIdRegistry.exists(2L));
+        verify(userRepository).existsById(2L);
+    }
+
+    @Test
+    public void testRemoveIsKeptOnRollback() {
+        when(userRepository.existsById(1L))
+                .thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userIdRegistry.remove(1L);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(userIdRegistry.exists(1L));
+    }
+}
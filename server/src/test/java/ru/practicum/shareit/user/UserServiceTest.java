@@ -6,24 +6,59 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.EmailBusyException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.PreconditionFailedException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemAvailabilityIndex;
+import ru.practicum.shareit.pagination.PageCursor;
+import ru.practicum.shareit.purge.model.PurgeJob;
+import ru.practicum.shareit.purge.model.PurgeTarget;
+import ru.practicum.shareit.purge.repository.PurgeJobRepository;
+import ru.practicum.shareit.user.dto.UserBatchResultDto;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserShort;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserIdRegistry;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private UserIdRegistry userIdRegistry;
+    @Mock
+    private ItemAvailabilityIndex itemAvailabilityIndex;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private PurgeJobRepository purgeJobRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
     @InjectMocks
     private UserServiceImpl userService;
     private static User user;
@@ -47,9 +82,9 @@ public class UserServiceTest {
 
     @Test
     public void testGetAll() {
-        when(userRepository.findAll())
+        when(userRepository.findAllByIdGreaterThanOrderByIdAsc(eq(0L), any()))
                 .thenReturn(userList);
-        List<User> currentList = userService.getAll();
+        List<User> currentList = userService.getAll(null, 20);
         assertEquals(currentList.size(), 2);
         assertEquals(currentList.get(0).getId(), user.getId());
         assertEquals(currentList.get(0).getName(), user.getName());
@@ -57,6 +92,26 @@ public class UserServiceTest {
         assertEquals(currentList.get(1).getName(), user2.getName());
     }
 
+    @Test
+    public void testGetAllWithCursor() {
+        when(userRepository.findAllByIdGreaterThanOrderByIdAsc(eq(1L), any()))
+                .thenReturn(List.of(user2));
+        List<User> currentList = userService.getAll(PageCursor.of(null, 1L), 20);
+        assertEquals(currentList, List.of(user2));
+    }
+
+    @Test
+    public void testExport() {
+        SpelAwareProxyProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+        when(userRepository.streamAll())
+                .thenReturn(userList.stream()
+                        .map(u -> projectionFactory.createProjection(UserShort.class,
+                                Map.of("id", u.getId(), "name", u.getName(), "email", u.getEmail()))));
+        List<UserDto> exported = new ArrayList<>();
+        userService.export(exported::add);
+        assertEquals(exported, List.of(UserMapper.toUserDto(user), UserMapper.toUserDto(user2)));
+    }
+
     @Test
     public void testGet() {
         when(userRepository.findById(anyLong()))
@@ -93,22 +148,132 @@ public class UserServiceTest {
                 .build();
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.of(user));
-        when(userRepository.existsByEmailIgnoringUser(anyString(), anyLong()))
-                .thenReturn(false);
-        when(userRepository.save(any(User.class)))
+        when(userRepository.saveAndFlush(any(User.class)))
                 .thenReturn(updateUser);
-        User currentUser = userService.update(1L, user);
+        User currentUser = userService.update(1L, user, null);
         assertEquals(currentUser.getId(), updateUser.getId());
         assertEquals(currentUser.getName(), updateUser.getName());
         assertEquals(currentUser.getEmail(), updateUser.getEmail());
     }
 
+    @Test
+    public void testUpdateWithCurrentETag() {
+        User currentUser = versionedUser(3L);
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(currentUser));
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenReturn(currentUser);
+        String etag = EntityTags.of(3L, UserMapper.toUserDto(currentUser));
+        assertEquals(currentUser, userService.update(1L, User.builder().build(), "\"other\", " + etag));
+    }
+
+    @Test
+    public void testUpdateWithStaleETag() {
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(versionedUser(3L)));
+        assertThrows(PreconditionFailedException.class, () -> userService.update(1L, user,
+                EntityTags.of(2L, UserMapper.toUserDto(versionedUser(2L)))));
+        verify(userRepository, never()).saveAndFlush(any(User.class));
+    }
+
     @Test
     public void testUpdateWithBusyEmail() {
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.of(user));
-        when(userRepository.existsByEmailIgnoringUser(anyString(), anyLong()))
-                .thenReturn(true);
-        assertThrows(EmailBusyException.class, () -> userService.update(1L, user));
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(emailConflict());
+        assertThrows(EmailBusyException.class, () -> userService.update(1L, user, null));
+    }
+
+    @Test
+    public void testUpdateWithOtherConstraintViolation() {
+        DataIntegrityViolationException exception = new DataIntegrityViolationException("not null",
+                new ConstraintViolationException("not null", new SQLException(), "users_name_not_null"));
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(exception);
+        assertEquals(exception, assertThrows(DataIntegrityViolationException.class, () -> userService.update(1L, user, null)));
+    }
+
+    @Test
+    public void testAddAllReportsConflictsPerRow() {
+        User taken = User.builder().name("Dave").email("Simple@id.ru").build();
+        User fresh = User.builder().name("Dima").email("dima@id.ru").build();
+        User duplicate = User.builder().name("Dima").email("DIMA@id.ru").build();
+        User racing = User.builder().name("Danil").email("danil@id.ru").build();
+        when(userRepository.findExistingEmails(Set.of("simple@id.ru", "dima@id.ru", "danil@id.ru")))
+                .thenReturn(List.of("simple@id.ru"));
+        when(userRepository.save(fresh))
+                .thenReturn(User.builder().id(5L).name("Dima").email("dima@id.ru").build());
+        when(userRepository.save(racing))
+                .thenThrow(emailConflict());
+
+        List<UserBatchResultDto> results = userService.addAll(List.of(taken, fresh, duplicate, racing));
+
+        assertEquals(4, results.size());
+        assertNotNull(results.get(0).getError());
+        assertEquals(5L, results.get(1).getUser().getId());
+        assertNull(results.get(1).getError());
+        assertNotNull(results.get(2).getError());
+        assertEquals(3, results.get(3).getIndex());
+        assertNull(results.get(3).getUser());
+        assertNotNull(results.get(3).getError());
+        verify(userIdRegistry).add(5L);
+    }
+
+    @Test
+    public void testAddAllHidesOtherViolations() {
+        User user = User.builder().name("Dima").email("dima@id.ru").build();
+        when(userRepository.findExistingEmails(Set.of("dima@id.ru")))
+                .thenReturn(List.of());
+        when(userRepository.save(user))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement; SQL [insert into users]",
+                        new ConstraintViolationException("not null", new SQLException(), "users_name_not_null")));
+
+        List<UserBatchResultDto> results = userService.addAll(List.of(user));
+
+        assertEquals("не удалось сохранить пользователя", results.get(0).getError());
+    }
+
+    @Test
+    public void testAddAllWithoutUsers() {
+        assertThrows(BadRequestException.class, () -> userService.addAll(List.of()));
+    }
+
+    @Test
+    public void testDeleteMarksUserAndItemsForPurge() {
+        when(userRepository.softDeleteById(eq(1L), any()))
+                .thenReturn(1);
+        when(itemRepository.findIdsOwnedOrBookedBy(eq(1L), any()))
+                .thenReturn(List.of(2L, 5L));
+        userService.delete(1L);
+        verify(itemRepository).softDeleteByOwnerId(eq(1L), any());
+        verify(purgeJobRepository).save(argThat(job -> job.getTarget() == PurgeTarget.USER && job.getTargetId() == 1L
+                && job.getStep() == 0));
+        verify(userIdRegistry).remove(1L);
+        verify(itemAvailabilityIndex).reloadAfterCommit(List.of(2L, 5L));
+    }
+
+    @Test
+    public void testDeleteWithIncorrectUserId() {
+        when(userRepository.softDeleteById(eq(3L), any()))
+                .thenReturn(0);
+        assertThrows(NotFoundException.class, () -> userService.delete(3L));
+        verify(purgeJobRepository, never()).save(any(PurgeJob.class));
+    }
+
+    private static DataIntegrityViolationException emailConflict() {
+        return new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate", new SQLException(), "uq_user_email_lower"));
+    }
+
+    private User versionedUser(Long version) {
+        return User.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .name(user.getName())
+                .version(version)
+                .build();
     }
 }